@@ -0,0 +1,49 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import csp.CSP.DateVar;
+
+/**
+ * AllDifferentConstraints require every meeting in VARS to be on a
+ * different day, such as:
+ * alldifferent(0, 1, 2, 3)
+ * Filtering is Regin's matching-based algorithm, which removes exactly
+ * the dates that no all-different assignment uses.
+ */
+public class AllDifferentConstraint extends GlobalDateConstraint {
+
+    /**
+     * Constructs a new AllDifferentConstraint over the given meetings.
+     * @param vars Distinct meeting variable indexes that must all differ
+     */
+    AllDifferentConstraint (int... vars) {
+        super(vars, "!=");
+    }
+    
+    @Override
+    public boolean isConsistent (List<LocalDate> assignment) {
+        return MatchingPropagator.withinCapacity(VARS, assignment, 1);
+    }
+    
+    @Override
+    public int[] conflictSet (int var, List<LocalDate> assignment) {
+        return MatchingPropagator.conflictSet(VARS, var, assignment, 1);
+    }
+    
+    @Override
+    public boolean propagate (List<DateVar> domains) {
+        return MatchingPropagator.filter(VARS, domains, 1);
+    }
+    
+    @Override
+    public GlobalDateConstraint remap (int[] local) {
+        int[] vars = new int[VARS.length];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = local[VARS[i]];
+        }
+        return new AllDifferentConstraint(vars);
+    }
+    
+}
@@ -0,0 +1,172 @@
+package csp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import csp.CSP.SearchMode;
+import csp.ProblemFormat.Problem;
+
+/**
+ * BatchSolver: command-line runner that streams problems in the
+ * ProblemFormat from a file, solves them concurrently, and writes one
+ * JSON object per problem (in completion order) with its status,
+ * solution and solver statistics:
+ * <pre>
+ * {"id":"p1","status":"SAT","solution":["2019-01-01",...],"nodes":12,...}
+ * </pre>
+ * The status is SAT, UNSAT, LIMIT (the time limit ran out first) or
+ * ERROR (the problem line could not be parsed, or solving it failed).
+ * The executor's queue is bounded, so the reader blocks instead of
+ * loading the whole file when the solvers fall behind.
+ *
+ * Usage: java csp.BatchSolver problems.txt [threads] [timeLimitMillis] [searchMode]
+ */
+public class BatchSolver {
+
+    public static void main (String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("Usage: java csp.BatchSolver problems.txt [threads] [timeLimitMillis] [searchMode]");
+            System.exit(2);
+        }
+        int nThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long timeLimitMillis = (args.length > 2) ? Long.parseLong(args[2]) : 0;
+        SearchMode mode = (args.length > 3) ? SearchMode.valueOf(args[3]) : SearchMode.BACKJUMPING;
+
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            run(in, out, nThreads, new SolverLimits(timeLimitMillis, 0, null), mode);
+        }
+    }
+
+    /**
+     * Solves every problem of the input and writes one JSON line per
+     * problem; the time and node limits apply to each problem separately.
+     * @param in Problems in the ProblemFormat, one per line
+     * @param out [Side Effect] receives the JSON lines
+     * @param nThreads Number of problems solved concurrently
+     * @param limits Limits on the search of each problem
+     * @param mode Search algorithm used for every problem
+     * @return The number of problems read
+     * @throws IOException if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting for the solvers
+     */
+    public static int run (BufferedReader in, Writer out, int nThreads, SolverLimits limits, SearchMode mode)
+            throws IOException, InterruptedException {
+        if (nThreads < 1) {
+            throw new IllegalArgumentException("Invalid number of workers");
+        }
+        // A full queue makes the reading thread solve the next problem
+        // itself, which throttles reading to the pace of the solvers
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(nThreads, nThreads, 0, TimeUnit.MILLISECONDS,
+                                                             new ArrayBlockingQueue<Runnable>(2 * nThreads),
+                                                             new ThreadPoolExecutor.CallerRunsPolicy());
+        int count = 0;
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (ProblemFormat.isBlankOrComment(line)) { continue; }
+                count++;
+                String text = line;
+                int number = lineNumber;
+                executor.execute(() -> write(out, solve(text, number, limits, mode)));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            out.flush();
+        }
+        return count;
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * @return The JSON line for one problem
+     */
+    static String solve (String line, int lineNumber, SolverLimits limits, SearchMode mode) {
+        Problem problem;
+        try {
+            problem = ProblemFormat.parse(line);
+        } catch (IllegalArgumentException e) {
+            return "{\"line\":" + lineNumber + ",\"status\":\"ERROR\",\"error\":" + quote(e.getMessage()) + "}";
+        }
+
+        SolverStats stats = new SolverStats();
+        List<LocalDate> solution;
+        try {
+            solution = Decomposition.solve(problem.N_MEETINGS, problem.RANGE_START, problem.RANGE_END,
+                                           problem.CONSTRAINTS, mode, stats, false, limits);
+        } catch (RuntimeException | StackOverflowError e) {
+            // Thrown on an executor thread, it would otherwise vanish along
+            // with the problem's line of output; a deep recursive search can
+            // overflow the stack on a large calendar
+            return "{\"id\":" + quote(problem.ID) + ",\"status\":\"ERROR\",\"error\":" + quote(String.valueOf(e)) + "}";
+        }
+        StringBuilder json = new StringBuilder();
+        json.append("{\"id\":").append(quote(problem.ID))
+            .append(",\"status\":\"").append((solution != null) ? "SAT" : stats.isLimitReached() ? "LIMIT" : "UNSAT").append('"');
+        if (solution != null) {
+            json.append(",\"solution\":[");
+            for (int i = 0; i < solution.size(); i++) {
+                json.append((i > 0) ? ",\"" : "\"").append(solution.get(i)).append('"');
+            }
+            json.append(']');
+        }
+        json.append(",\"nodes\":").append(stats.getNodes())
+            .append(",\"backtracks\":").append(stats.getBacktracks())
+            .append(",\"propagations\":").append(stats.getPropagations())
+            .append(",\"wipeouts\":").append(stats.getWipeouts())
+            .append(",\"propagationMs\":").append(stats.getPropagationNanos() / 1_000_000)
+            .append(",\"searchMs\":").append(stats.getSearchNanos() / 1_000_000)
+            .append(",\"elapsedMs\":").append(stats.getElapsedNanos() / 1_000_000)
+            .append('}');
+        return json.toString();
+    }
+
+    private static void write (Writer out, String json) {
+        synchronized (out) {
+            try {
+                out.write(json);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static String quote (String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+}
@@ -12,6 +12,7 @@ package csp;
 public class BinaryDateConstraint extends DateConstraint {
 
     public final int R_VAL;
+    private final int[] scope;
     
     /**
      * Constructs a new BinaryDateConstraint that constrains the meeting
@@ -29,6 +30,21 @@ public class BinaryDateConstraint extends DateConstraint {
         }
         
         R_VAL = rVal;
+        scope = new int[] {lVal, rVal};
+    }
+    
+    @Override
+    public int[] scope () {
+        return scope;
+    }
+    
+    /**
+     * Ordering constraints (<, <=, >, >=) depend only on the bounds of
+     * each domain and can be propagated as precedences.
+     * @return true if this constraint's operator is an ordering
+     */
+    public boolean isOrdering () {
+        return OPERATOR.isOrdering();
     }
     
     @Override
@@ -3,10 +3,11 @@ package csp;
 import java.time.LocalDate;
 import java.util.Set;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Queue;
+import java.util.function.IntPredicate;
 
 /**
  * CSP: Calendar Satisfaction Problem Solver
@@ -31,34 +32,135 @@ public class CSP {
      *         indexed by the variable they satisfy, or null if no solution exists.
      */
     public static List<LocalDate> solve (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints) {
-        List<DateVar> domains = new ArrayList<DateVar>(nMeetings);
-        initializeDomains(domains, nMeetings, rangeStart, rangeEnd);
-        
-        for (DateConstraint constraint : constraints) {
-            if (constraint.arity() == 1) {
-                UnaryDateConstraint castedConstraint = (UnaryDateConstraint) constraint;
-                nodeConsistency(castedConstraint, domains);
-            } else {
-                BinaryDateConstraint castedConstraint = (BinaryDateConstraint) constraint;
-                constrainWithArcConsistency(castedConstraint, domains);
+        return Decomposition.solve(nMeetings, rangeStart, rangeEnd, constraints, SearchMode.BACKTRACKING, new SolverStats(), false);
+    }
+    
+    /**
+     * Variant of solve that selects the search algorithm run after
+     * preprocessing and records its statistics.
+     * @param nMeetings The number of meetings that must be scheduled, indexed from 0 to n-1
+     * @param rangeStart The start date (inclusive) of the domains of each of the n meeting-variables
+     * @param rangeEnd The end date (inclusive) of the domains of each of the n meeting-variables
+     * @param constraints Date constraints on the meeting times
+     * @param mode Which search algorithm to run
+     * @param stats [Side Effect] accumulates nodes visited, backtracks and time taken
+     * @return A list of dates that satisfies each of the constraints, or null if no solution exists.
+     */
+    public static List<LocalDate> solve (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints, SearchMode mode, SolverStats stats) {
+        return solve(nMeetings, rangeStart, rangeEnd, constraints, mode, stats, SolverLimits.NONE);
+    }
+    
+    /**
+     * Variant of solve that gives up once the given limits are reached.
+     * @param nMeetings The number of meetings that must be scheduled, indexed from 0 to n-1
+     * @param rangeStart The start date (inclusive) of the domains of each of the n meeting-variables
+     * @param rangeEnd The end date (inclusive) of the domains of each of the n meeting-variables
+     * @param constraints Date constraints on the meeting times
+     * @param mode Which search algorithm to run
+     * @param stats [Side Effect] accumulates nodes visited, backtracks and time taken
+     * @param limits Time, node and cancellation limits on the search
+     * @return A list of dates that satisfies each of the constraints, or null if no solution
+     *         exists or a limit was reached first (see SolverStats.isLimitReached)
+     */
+    public static List<LocalDate> solve (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints,
+                                         SearchMode mode, SolverStats stats, SolverLimits limits) {
+        return solve(nMeetings, rangeTemplate(rangeStart, rangeEnd), constraints, mode, stats, limits.start());
+    }
+    
+    /**
+     * Builds the initial domains from the given range and prunes them with
+     * node, arc and bounds consistency preprocessing before any search.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @return The pruned domains, or null if the precedence bounds or a
+     *         global constraint already prove that no solution exists
+     */
+    public static List<DateVar> propagateDomains (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints) {
+        return propagateDomains(nMeetings, rangeStart, rangeEnd, constraints, new SolverStats());
+    }
+    
+    /**
+     * Variant of propagateDomains that records its propagator runs, any
+     * wipeout and the time taken.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param stats [Side Effect] accumulates propagations, wipeouts and propagation time
+     * @return The pruned domains, or null if the precedence bounds or a
+     *         global constraint already prove that no solution exists
+     */
+    public static List<DateVar> propagateDomains (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints, SolverStats stats) {
+        return propagateDomains(nMeetings, rangeTemplate(rangeStart, rangeEnd), constraints, stats);
+    }
+    
+    /**
+     * Variant of propagateDomains over a prebuilt range of dates, so callers
+     * solving many calendars over the same range build it only once.
+     */
+    static List<DateVar> propagateDomains (int nMeetings, HashSet<LocalDate> template, Set<DateConstraint> constraints, SolverStats stats) {
+        long startTime = System.nanoTime();
+        List<DateVar> domains = filterDomains(nMeetings, template, constraints, stats);
+        if (domains == null || domains.stream().anyMatch(var -> var.domain.isEmpty())) {
+            stats.wipeouts++;
+        }
+        stats.propagationNanos += System.nanoTime() - startTime;
+        return domains;
+    }
+    
+    /**
+     * Searches the calendar over a prebuilt range of dates with the given
+     * budget, both of which the caller may share between several solves.
+     * Interchangeable meetings are first ordered (see Symmetry) so the
+     * search only tries one of their equivalent permutations.
+     */
+    static List<LocalDate> solve (int nMeetings, HashSet<LocalDate> template, Set<DateConstraint> constraints,
+                                  SearchMode mode, SolverStats stats, SolverLimits.Budget budget) {
+        long startTime = System.nanoTime();
+        try {
+            constraints = Symmetry.breakSymmetry(nMeetings, constraints);
+            List<DateVar> domains = propagateDomains(nMeetings, template, constraints, stats);
+            if (domains == null) {
+                return null;
+            }
+            
+            long searchStart = System.nanoTime(), propagationBefore = stats.propagationNanos;
+            try {
+                switch (mode) {
+                    case BACKJUMPING:
+                        return new ConflictSearch(domains, constraints, 0, stats, budget).search();
+                    case BACKJUMPING_WITH_NOGOODS:
+                        return new ConflictSearch(domains, constraints, ConflictSearch.DEFAULT_NOGOOD_CAPACITY, stats, budget).search();
+                    default:
+                        List<LocalDate> assignment = new ArrayList<LocalDate>();
+                        initializeAssignment(assignment, nMeetings);
+                        return backtrack(assignment, nMeetings, domains, constraints, stats, budget);
+                }
+            } finally {
+                // Forward checking is counted as propagation, not search
+                stats.searchNanos += System.nanoTime() - searchStart - (stats.propagationNanos - propagationBefore);
             }
+        } finally {
+            stats.elapsedNanos += System.nanoTime() - startTime;
         }
-
-        List<LocalDate> assignment = new ArrayList<LocalDate>();
-        initializeAssignment(assignment, nMeetings);
-        
-        return backtrack(assignment, nMeetings, domains, constraints);
     }
 
     /**
      * Recursively backtracks using constrained domains until solution is found.
+     * After each assignment the global constraints over the assigned variable
+     * filter the future domains again (see forwardCheck).
      * @param assignment Current set of assigned vars
      * @param nMeetings Numbers of meetings
      * @param domains List containing the DataVars with each vars domains
      * @param constraints Set of contraints given in the problem
-     * @return Completed assignment
+     * @param stats Counts nodes visited and backtracks
+     * @param budget Limits on the search, charged one node per assignment tried
+     * @return Completed assignment, or null if none exists or the budget ran out
      */
-    private static List<LocalDate> backtrack(List<LocalDate> assignment, int nMeetings, List<DateVar> domains, Set<DateConstraint> constraints) {
+    private static List<LocalDate> backtrack(List<LocalDate> assignment, int nMeetings, List<DateVar> domains, Set<DateConstraint> constraints,
+                                             SolverStats stats, SolverLimits.Budget budget) {
         if (!assignment.contains(null)) {
             return assignment;
         }
@@ -66,107 +168,182 @@ public class CSP {
         int unassignedVarIndex = getUnassignedVar(assignment, nMeetings);
 
         for (LocalDate date : domains.get(unassignedVarIndex).domain) {
+            if (!budget.spend()) {
+                stats.limitReached = true;
+                return null;
+            }
             assignment.set(unassignedVarIndex, date);
+            stats.nodes++;
             
             if (checkAssignmentConsistency(assignment, constraints)) {
-                List<LocalDate> result = backtrack(assignment, nMeetings, domains, constraints);
-                if (result != null) {
-                    return result;
+                List<DateVar> future = forwardCheck(unassignedVarIndex, date, domains, constraints, stats);
+                if (future != null) {
+                    List<LocalDate> result = backtrack(assignment, nMeetings, future, constraints, stats, budget);
+                    if (result != null || budget.isExhausted()) {
+                        return result;
+                    }
                 }
             }
             
             assignment.set(unassignedVarIndex, null);
         }
 
+        stats.backtracks++;
         return null;
     }
     
     public static void nodeConsistency(UnaryDateConstraint constraint, List<DateVar> domains) {
-        HashSet<LocalDate> domain = copyDomain(domains.get(constraint.L_VAL).domain);
-        for (LocalDate date : domains.get(constraint.L_VAL).domain) {
-            switch (constraint.OP) {
-                case "==": if (!date.isEqual(constraint.R_VAL))   domain.remove(date); break;
-                case "!=": if (date.isEqual(constraint.R_VAL))  domain.remove(date); break;
-                case ">":  if (date.isBefore(constraint.R_VAL) || date.isEqual(constraint.R_VAL))  domain.remove(date); break;
-                case "<":  if (date.isAfter(constraint.R_VAL) || date.isEqual(constraint.R_VAL))  domain.remove(date); break;
-                case ">=": if (date.isBefore(constraint.R_VAL)) domain.remove(date); break;
-                case "<=": if (date.isAfter(constraint.R_VAL)) domain.remove(date); break;
-            }
-        }
+        Operator operator = constraint.OPERATOR;
+        int rightDay = constraint.R_DAY;
+        HashSet<LocalDate> domain = retainDays(domains.get(constraint.L_VAL).domain, day -> operator.test(day, rightDay));
         domains.set(constraint.L_VAL, new DateVar(domain));
     }
     
     public static void constrainWithArcConsistency(BinaryDateConstraint constraint, List<DateVar> domains) {
-        HashSet<LocalDate> leftDomain = copyDomain(domains.get(constraint.L_VAL).domain);
         HashSet<LocalDate> rightDomain = domains.get(constraint.R_VAL).domain;
         
         if (rightDomain.isEmpty()) {
             return;
         }
         
-        for (LocalDate leftDate : domains.get(constraint.L_VAL).domain) {
-            Boolean found = false;
-            switch (constraint.OP) {
-                case "==": 
-                    leftDomain.retainAll(rightDomain);
-                    return;
-                case "!=":
-                    found = false;
-                    for (LocalDate rightDate : rightDomain) {
-                        if (!leftDate.isEqual(rightDate)) {
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) { leftDomain.remove(leftDate); }
-                    break;
-                case ">":
-                    found = false;
-                    for (LocalDate rightDate : rightDomain) {
-                        if (leftDate.isAfter(rightDate)) {
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) { leftDomain.remove(leftDate); }
-                    break;
-                case "<":
-                    found = false;
-                    for (LocalDate rightDate : rightDomain) {
-                        if (leftDate.isBefore(rightDate)) {
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) { leftDomain.remove(leftDate); }
-                    break;
-                case ">=":
-                    found = false;
-                    for (LocalDate rightDate : rightDomain) {
-                        if (leftDate.isAfter(rightDate) || leftDate.isEqual(rightDate)) {
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) { leftDomain.remove(leftDate); }
-                    break;
-                case "<=":
-                    found = false;
-                    for (LocalDate rightDate : rightDomain) {
-                        if (leftDate.isBefore(rightDate) || leftDate.isEqual(rightDate)) {
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) { leftDomain.remove(leftDate); }
-                    break;
-            }
+        int[] rightDays = toSortedEpochDays(rightDomain);
+        domains.get(constraint.L_VAL).domain = retainDays(domains.get(constraint.L_VAL).domain,
+                                                          day -> hasSupport(day, rightDays, constraint.OPERATOR));
+    }
+    
+    /**
+     * Checks whether some day of the right domain satisfies leftDay OP rightDay,
+     * which for every operator needs at most a binary search of the sorted days.
+     * @param leftDay Epoch day of the left value
+     * @param rightDays Sorted epoch days of the right domain, non-empty
+     * @param operator The compiled operator of the constraint
+     * @return true if the left value has a support in the right domain
+     */
+    public static boolean hasSupport(int leftDay, int[] rightDays, Operator operator) {
+        switch (operator) {
+            case EQ: return Arrays.binarySearch(rightDays, leftDay) >= 0;
+            case NE: return rightDays.length > 1 || rightDays[0] != leftDay;
+            case LT:
+            case LE: return operator.test(leftDay, rightDays[rightDays.length - 1]);
+            default: return operator.test(leftDay, rightDays[0]);
         }
-        domains.get(constraint.L_VAL).domain = leftDomain;
+    }
+    
+    /**
+     * Bounds-consistency revision for the ordering operators (<, <=, >, >=).
+     * These only depend on the min and max of each domain, so both sides are
+     * trimmed against the other's bounds without the pairwise loop of
+     * constrainWithArcConsistency.
+     * @param constraint Ordering constraint to enforce
+     * @param domains List containing the DateVars with each vars domains
+     */
+    public static void constrainWithBoundsConsistency(BinaryDateConstraint constraint, List<DateVar> domains) {
+        HashSet<LocalDate> leftDomain = domains.get(constraint.L_VAL).domain,
+                           rightDomain = domains.get(constraint.R_VAL).domain;
+        
+        if (leftDomain.isEmpty() || rightDomain.isEmpty()) {
+            return;
+        }
+        
+        int[] leftBounds = epochDayBounds(leftDomain),
+              rightBounds = epochDayBounds(rightDomain);
+        Operator operator = constraint.OPERATOR;
+        boolean before = (operator == Operator.LT || operator == Operator.LE);
+        int rightBound = before ? rightBounds[1] : rightBounds[0],
+            leftBound = before ? leftBounds[0] : leftBounds[1];
+        
+        domains.get(constraint.L_VAL).domain = retainDays(leftDomain, day -> operator.test(day, rightBound));
+        domains.get(constraint.R_VAL).domain = retainDays(rightDomain, day -> operator.test(leftBound, day));
     }
 
 
     // Helper Methods / Classes
+    
+    /**
+     * Node, arc and bounds consistency for every constraint, then the
+     * precedence graph, then the global propagators.
+     */
+    private static List<DateVar> filterDomains (int nMeetings, HashSet<LocalDate> template, Set<DateConstraint> constraints, SolverStats stats) {
+        List<DateVar> domains = new ArrayList<DateVar>(nMeetings);
+        for (int i = 0; i < nMeetings; i++) {
+            domains.add(new DateVar(template));
+        }
+        
+        for (DateConstraint constraint : constraints) {
+            if (!(constraint instanceof GlobalDateConstraint)) {
+                stats.propagations++;
+            }
+            if (constraint instanceof UnaryDateConstraint) {
+                UnaryDateConstraint castedConstraint = (UnaryDateConstraint) constraint;
+                nodeConsistency(castedConstraint, domains);
+            } else if (constraint instanceof BinaryDateConstraint) {
+                BinaryDateConstraint castedConstraint = (BinaryDateConstraint) constraint;
+                if (castedConstraint.isOrdering()) {
+                    constrainWithBoundsConsistency(castedConstraint, domains);
+                } else {
+                    constrainWithArcConsistency(castedConstraint, domains);
+                }
+            }
+        }
+        stats.propagations++;
+        if (!new PrecedenceGraph(nMeetings, constraints).propagate(domains)) {
+            return null;
+        }
+        
+        // Global propagators run last so they see the tightest domains
+        for (DateConstraint constraint : constraints) {
+            if (constraint instanceof GlobalDateConstraint) {
+                stats.propagations++;
+                if (!((GlobalDateConstraint) constraint).propagate(domains)) {
+                    return null;
+                }
+            }
+        }
+        
+        return domains;
+    }
+    
+    /**
+     * Forward checking for the global constraints during search: with var
+     * fixed to date, re-runs the propagator of every global constraint over
+     * var, so a matching that can no longer place the future meetings fails
+     * here rather than deep below. Each assigned meeting in a global scope
+     * already has just its date as domain, and domains are copy-on-write, so
+     * the caller's list is left as it was and backtracking needs no undo.
+     * @param var Index of the variable that was just assigned
+     * @param date The date it was assigned
+     * @param domains Domains of the current search node
+     * @param constraints Set of constraints given in the problem
+     * @param stats [Side Effect] accumulates propagator runs, wipeouts and
+     *        propagation time
+     * @return The domains for the subtree below, domains itself if var is in
+     *         no global scope, or null if some domain was wiped out
+     */
+    private static List<DateVar> forwardCheck(int var, LocalDate date, List<DateVar> domains, Set<DateConstraint> constraints, SolverStats stats) {
+        List<DateVar> future = null;
+        for (DateConstraint constraint : constraints) {
+            if (!(constraint instanceof GlobalDateConstraint)
+                || Arrays.stream(constraint.scope()).noneMatch(other -> other == var)) {
+                continue;
+            }
+            if (future == null) {
+                future = new ArrayList<DateVar>(domains);
+                HashSet<LocalDate> single = new HashSet<LocalDate>();
+                single.add(date);
+                future.set(var, new DateVar(single));
+            }
+            stats.propagations++;
+            long startTime = System.nanoTime();
+            boolean consistent = ((GlobalDateConstraint) constraint).propagate(future);
+            stats.propagationNanos += System.nanoTime() - startTime;
+            if (!consistent) {
+                stats.wipeouts++;
+                return null;
+            }
+        }
+        return (future == null) ? domains : future;
+    }
+    
     /**
      * Fills assignment List variable with nulls.
      * @param assignment List to be filled
@@ -186,13 +363,27 @@ public class CSP {
      * @param rangeEnd Where the initial domains end
      */
     public static void initializeDomains(List<DateVar> domains, int size, LocalDate rangeStart, LocalDate rangeEnd) {
+        // Every variable starts from one shared set of the range's dates;
+        // propagation is copy-on-write (see retainDays), so a variable only
+        // gets its own set once its domain is actually pruned
+        HashSet<LocalDate> template = rangeTemplate(rangeStart, rangeEnd);
         for (int i = 0; i < size; i++) {
-            HashSet<LocalDate> newDomain = new HashSet<LocalDate>();
-            for (LocalDate currentDate = rangeStart; currentDate.isBefore(rangeEnd) || currentDate.isEqual(rangeEnd); currentDate = currentDate.plusDays(1)) {
-                newDomain.add(currentDate);
-            }   
-            domains.add(new DateVar(newDomain));
+            domains.add(new DateVar(template));
+        }
+    }
+    
+    /**
+     * @param rangeStart The start date (inclusive) of the range
+     * @param rangeEnd The end date (inclusive) of the range
+     * @return A new set of every date in the range, built from epoch days
+     */
+    static HashSet<LocalDate> rangeTemplate(LocalDate rangeStart, LocalDate rangeEnd) {
+        long first = rangeStart.toEpochDay(), last = rangeEnd.toEpochDay();
+        HashSet<LocalDate> template = new HashSet<LocalDate>((int) Math.max(16, (last - first + 1) * 4 / 3 + 1));
+        for (long day = first; day <= last; day++) {
+            template.add(LocalDate.ofEpochDay(day));
         }
+        return template;
     }
     
     /**
@@ -201,15 +392,72 @@ public class CSP {
      * @return New HashSet copy of the domain
      */
     public static HashSet<LocalDate> copyDomain(HashSet<LocalDate> domain) {
+        return new HashSet<LocalDate>(domain);
+    }
+    
+    /**
+     * Copy-on-write filter for domains, which may be shared between
+     * variables and so are never changed in place.
+     * @param domain Domain to filter
+     * @param keep Test on the epoch day of each date
+     * @return The domain itself if every date is kept, otherwise a new set
+     *         of the kept dates
+     */
+    public static HashSet<LocalDate> retainDays(HashSet<LocalDate> domain, IntPredicate keep) {
+        // Nothing is allocated unless some date is rejected; the dates before
+        // the first rejected one are then copied without testing them again
+        int rejected = 0;
+        for (LocalDate date : domain) {
+            if (!keep.test((int) date.toEpochDay())) {
+                break;
+            }
+            rejected++;
+        }
+        if (rejected == domain.size()) {
+            return domain;
+        }
         HashSet<LocalDate> result = new HashSet<LocalDate>();
-        
+        int index = 0;
         for (LocalDate date : domain) {
-            result.add(date);
+            if (index < rejected) {
+                result.add(date);
+            } else if (index > rejected && keep.test((int) date.toEpochDay())) {
+                result.add(date);
+            }
+            index++;
         }
-        
         return result;
     }
 
+    /**
+     * Compiles a domain into its sorted epoch days for int comparisons.
+     * @param domain Domain to convert
+     * @return Sorted array of the domain's epoch days
+     */
+    public static int[] toSortedEpochDays(HashSet<LocalDate> domain) {
+        int[] days = new int[domain.size()];
+        int i = 0;
+        for (LocalDate date : domain) {
+            days[i++] = (int) date.toEpochDay();
+        }
+        Arrays.sort(days);
+        return days;
+    }
+
+    /**
+     * @param domain Non-empty domain to scan
+     * @return The {min, max} epoch days of the domain
+     */
+    public static int[] epochDayBounds(HashSet<LocalDate> domain) {
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (LocalDate date : domain) {
+            int day = (int) date.toEpochDay();
+            min = Math.min(min, day);
+            max = Math.max(max, day);
+        }
+        return new int[] {min, max};
+    }
+
     /**
      * Helper function that returns variable that has yet to be assigned
      * in the assignment list by MRV
@@ -234,17 +482,9 @@ public class CSP {
      * @return boolean of whether or not the two dates pass
      */
     public static boolean checkConsistency (LocalDate leftDate, LocalDate rightDate, DateConstraint constraint) {
-        boolean isConsistent = false;
-        switch (constraint.OP) {
-            case "==": if (leftDate.isEqual(rightDate))  isConsistent = true; break;
-            case "!=": if (!leftDate.isEqual(rightDate)) isConsistent = true; break;
-            case ">":  if (leftDate.isAfter(rightDate))  isConsistent = true; break;
-            case "<":  if (leftDate.isBefore(rightDate)) isConsistent = true; break;
-            case ">=": if (leftDate.isAfter(rightDate) || leftDate.isEqual(rightDate))  isConsistent = true; break;
-            case "<=": if (leftDate.isBefore(rightDate) || leftDate.isEqual(rightDate)) isConsistent = true; break;
-        }
-        
-        return isConsistent;
+        // compareTo is cheaper than converting both dates to epoch days, and
+        // (left OP right) == (compareTo(left, right) OP 0) for every operator
+        return constraint.OPERATOR.test(leftDate.compareTo(rightDate), 0);
     }
     
     /**
@@ -255,7 +495,11 @@ public class CSP {
      */
     public static boolean checkAssignmentConsistency(List<LocalDate> assignment, Set<DateConstraint> constraints){
         for (DateConstraint constraint : constraints){
-            if (constraint.arity() == 2) {
+            if (constraint instanceof GlobalDateConstraint) {
+                if (!((GlobalDateConstraint) constraint).isConsistent(assignment)) {
+                    return false;
+                }
+            } else if (constraint.arity() == 2) {
                 BinaryDateConstraint castedConstraint = (BinaryDateConstraint) constraint;
                 if (assignment.get(castedConstraint.L_VAL) != null && assignment.get(castedConstraint.R_VAL) != null) {
                     if (!checkConsistency(assignment.get(castedConstraint.L_VAL), assignment.get(castedConstraint.R_VAL), constraint)) {
@@ -275,6 +519,66 @@ public class CSP {
         return true;
     }
 
+    /**
+     * Groups the constraints by the variables they mention so a search only
+     * re-checks the constraints touching the variable it just assigned.
+     * @param nMeetings Number of meetings
+     * @param constraints Set of constraints given in the problem
+     * @return List indexed by variable of the constraints incident to it
+     */
+    public static List<List<DateConstraint>> indexConstraints(int nMeetings, Set<DateConstraint> constraints) {
+        List<List<DateConstraint>> incident = new ArrayList<List<DateConstraint>>(nMeetings);
+        for (int i = 0; i < nMeetings; i++) {
+            incident.add(new ArrayList<DateConstraint>());
+        }
+        for (DateConstraint constraint : constraints) {
+            for (int var : constraint.scope()) {
+                incident.get(var).add(constraint);
+            }
+        }
+        return incident;
+    }
+    
+    /**
+     * Checks only the constraints incident to the given variable against the
+     * current assignment, skipping any whose other side is still unassigned.
+     * @param var Index of the variable that was just assigned
+     * @param assignment Current assignments to be checked for consistency
+     * @param incident Constraints grouped by variable, from indexConstraints
+     * @return True or False whether or not var's assignment is consistent
+     */
+    public static boolean checkVariableConsistency(int var, List<LocalDate> assignment, List<List<DateConstraint>> incident) {
+        for (DateConstraint constraint : incident.get(var)) {
+            if (constraint instanceof GlobalDateConstraint) {
+                if (!((GlobalDateConstraint) constraint).isConsistent(assignment)) {
+                    return false;
+                }
+                continue;
+            }
+            LocalDate leftDate = assignment.get(constraint.L_VAL),
+                      rightDate = (constraint.arity() == 1)
+                          ? ((UnaryDateConstraint) constraint).R_VAL
+                          : assignment.get(((BinaryDateConstraint) constraint).R_VAL);
+            if (leftDate != null && rightDate != null && !checkConsistency(leftDate, rightDate, constraint)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Search algorithms selectable in solve: plain chronological
+     * backtracking, conflict-directed backjumping, and backjumping that also
+     * records the nogoods found at dead ends.
+     */
+    public enum SearchMode {
+        BACKTRACKING, BACKJUMPING, BACKJUMPING_WITH_NOGOODS
+    }
+
+    /**
+     * Domain of one meeting. Domain sets may be shared between variables,
+     * so replace the set rather than changing it in place.
+     */
     public static class DateVar {
         public HashSet<LocalDate> domain;
         
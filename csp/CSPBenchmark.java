@@ -0,0 +1,136 @@
+package csp;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import csp.CSP.DateVar;
+import csp.CSP.SearchMode;
+import csp.ProblemFormat.Problem;
+
+/**
+ * CSPBenchmark: a self-contained micro-benchmark harness for the solver,
+ * run as java csp.CSPBenchmark [seed]. Each benchmark is warmed up before
+ * it is measured, and reports its throughput together with the bytes
+ * allocated per operation (or per search node, for solve), read from the
+ * JVM's per-thread allocation counter where the JVM provides one.
+ *
+ * The last section sweeps constraint tightness on random instances
+ * (see InstanceGenerator) to show the phase transition: search effort
+ * peaks where instances change from mostly satisfiable to mostly not.
+ */
+public class CSPBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3, MEASURED_ROUNDS = 5;
+    private static final long NODE_LIMIT = 200_000;
+
+    public static void main (String[] args) {
+        long seed = (args.length > 0) ? Long.parseLong(args[0]) : 1;
+
+        System.out.println("== solve (30 meetings, 10 days, density 0.3, tightness 0.3; 20 instances) ==");
+        List<Problem> instances = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            instances.add(InstanceGenerator.generate(seed + i, 30, 10, 0.3, 0.3));
+        }
+        for (SearchMode mode : SearchMode.values()) {
+            benchmarkSolve(mode.toString(), instances, mode);
+        }
+
+        System.out.println("== propagation (one 10-year domain pair) ==");
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2028, 12, 31);
+        UnaryDateConstraint unary = new UnaryDateConstraint(0, "<", LocalDate.of(2024, 1, 1));
+        BinaryDateConstraint notEqual = new BinaryDateConstraint(0, "!=", 1);
+        List<DateVar> pruned = new ArrayList<>();
+        CSP.initializeDomains(pruned, 2, start, end);
+        CSP.nodeConsistency(new UnaryDateConstraint(1, ">=", LocalDate.of(2024, 1, 1)), pruned);
+        benchmark("nodeConsistency", () -> {
+            List<DateVar> domains = new ArrayList<>(pruned);
+            CSP.nodeConsistency(unary, domains);
+            return 1L;
+        });
+        benchmark("constrainWithArcConsistency", () -> {
+            List<DateVar> domains = new ArrayList<>();
+            domains.add(new DateVar(pruned.get(0).domain));
+            domains.add(new DateVar(pruned.get(1).domain));
+            CSP.constrainWithArcConsistency(notEqual, domains);
+            return 1L;
+        });
+
+        System.out.println("== phase transition (25 meetings, 8 days, density 0.5; 10 instances per point) ==");
+        System.out.println(String.format("%-10s %8s %14s", "tightness", "sat", "mean nodes"));
+        for (int step = 1; step <= 9; step++) {
+            double tightness = step / 10.0;
+            int sat = 0;
+            long nodes = 0;
+            for (int i = 0; i < 10; i++) {
+                Problem problem = InstanceGenerator.generate(seed + i, 25, 8, 0.5, tightness);
+                SolverStats stats = new SolverStats();
+                if (solve(problem, SearchMode.BACKJUMPING, stats) != null) {
+                    sat++;
+                }
+                nodes += stats.getNodes();
+            }
+            System.out.println(String.format("%-10.1f %5d/10 %14d", tightness, sat, nodes / 10));
+        }
+    }
+
+
+    // Helper Methods / Classes
+
+    private static List<LocalDate> solve (Problem problem, SearchMode mode, SolverStats stats) {
+        return CSP.solve(problem.N_MEETINGS, problem.RANGE_START, problem.RANGE_END, problem.CONSTRAINTS, mode, stats,
+                         new SolverLimits(0, NODE_LIMIT, null));
+    }
+
+    private static void benchmarkSolve (String name, List<Problem> instances, SearchMode mode) {
+        benchmark("solve " + name, () -> {
+            SolverStats stats = new SolverStats();
+            for (Problem problem : instances) {
+                solve(problem, mode, stats);
+            }
+            return stats.getNodes();
+        });
+    }
+
+    /**
+     * Runs the operation in rounds of at least 200ms and prints the
+     * median round's throughput and allocation.
+     * @param operation Returns how many units (e.g., search nodes) it did
+     */
+    private static void benchmark (String name, Supplier<Long> operation) {
+        double[] unitsPerSecond = new double[MEASURED_ROUNDS], bytesPerUnit = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long units = 0, calls = 0, startBytes = allocatedBytes(), startTime = System.nanoTime(), elapsed;
+            do {
+                units += operation.get();
+                calls++;
+            } while ((elapsed = System.nanoTime() - startTime) < 200_000_000L);
+            long endBytes = allocatedBytes();
+            if (round >= WARMUP_ROUNDS) {
+                units = Math.max(units, calls);
+                unitsPerSecond[round - WARMUP_ROUNDS] = units * 1e9 / elapsed;
+                bytesPerUnit[round - WARMUP_ROUNDS] = (startBytes < 0) ? -1 : (double) (endBytes - startBytes) / units;
+            }
+        }
+        Arrays.sort(unitsPerSecond);
+        Arrays.sort(bytesPerUnit);
+        System.out.println(String.format("%-30s %14.0f units/s %12.1f bytes/unit", name,
+                                         unitsPerSecond[MEASURED_ROUNDS / 2], bytesPerUnit[MEASURED_ROUNDS / 2]));
+    }
+
+    /**
+     * @return Bytes allocated so far by the current thread, or a negative
+     *         value if the JVM does not track it
+     */
+    private static long allocatedBytes () {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+}
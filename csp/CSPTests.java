@@ -8,7 +8,10 @@ import java.time.LocalDate;
 import java.util.Set;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CSPTests {
     
@@ -31,6 +34,12 @@ public class CSPTests {
      */
     public static void testSolution (List<LocalDate> soln, Set<DateConstraint> constraints) {
         for (DateConstraint d : constraints) {
+            if (d instanceof GlobalDateConstraint) {
+                if (!((GlobalDateConstraint) d).isConsistent(soln)) {
+                    fail("[X] Constraint Failed: " + d);
+                }
+                continue;
+            }
             LocalDate leftDate = soln.get(d.L_VAL),
                       rightDate = (d.arity() == 1) 
                           ? ((UnaryDateConstraint) d).R_VAL 
@@ -306,4 +315,664 @@ public class CSPTests {
         testSolution(solution, constraints);
     }
     
+    @Test
+    public void CSP_t10() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            constraints.add(new BinaryDateConstraint(i, "<", i + 1));
+        }
+        
+        // A sequencing chain of 31 meetings in 31 days: the precedence
+        // bounds pin each meeting to exactly one date
+        List<LocalDate> solution = CSP.solve(
+            31,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 31),
+            constraints
+        );
+        
+        testSolution(solution, constraints);
+        assertEquals(LocalDate.of(2019, 1, 31), solution.get(30));
+    }
+    
+    @Test
+    public void CSP_t11() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 31; i++) {
+            constraints.add(new BinaryDateConstraint(i + 1, ">", i));
+        }
+        
+        // Same chain with one meeting too many for the window: without
+        // propagating bounds along the chain this is exponential search
+        List<LocalDate> solution = CSP.solve(
+            32,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 31),
+            constraints
+        );
+        
+        assertNull(solution);
+    }
+    
+    @Test
+    public void CSP_parallel_t0() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(1, "==", 2),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(3, "==", 4),
+                new BinaryDateConstraint(4, "<", 0),
+                new BinaryDateConstraint(3, ">", 2)
+            )
+        );
+        
+        // Same puzzle as CSP_t7, raced across a portfolio and split into
+        // subtrees respectively
+        testSolution(ParallelCSP.solvePortfolio(5, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, 4), constraints);
+        testSolution(ParallelCSP.solveSplit(5, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, 4), constraints);
+    }
+    
+    @Test
+    public void CSP_parallel_t1() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            for (int j = i + 1; j < 6; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        
+        // 6 pairwise-distinct meetings in 5 days: every worker / subtree
+        // has to exhaust its space before null can be reported
+        assertNull(ParallelCSP.solvePortfolio(6, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), constraints, 6));
+        assertNull(ParallelCSP.solveSplit(6, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), constraints, 6));
+    }
+    
+    @Test
+    public void CSP_backjumping_t0() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">", LocalDate.of(2019, 1, 1)),
+                new UnaryDateConstraint(1, ">", LocalDate.of(2019, 2, 1)),
+                new UnaryDateConstraint(2, ">", LocalDate.of(2019, 3, 1)),
+                new UnaryDateConstraint(3, ">", LocalDate.of(2019, 4, 1)),
+                new UnaryDateConstraint(4, ">", LocalDate.of(2019, 5, 1)),
+                new BinaryDateConstraint(0, ">", 4),
+                new BinaryDateConstraint(1, ">", 3),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(4, "!=", 0),
+                new BinaryDateConstraint(3, ">", 2)
+            )
+        );
+        
+        // Same problem as CSP_t9 under every search mode
+        for (CSP.SearchMode mode : CSP.SearchMode.values()) {
+            List<LocalDate> solution = CSP.solve(
+                5,
+                LocalDate.of(2019, 1, 1),
+                LocalDate.of(2019, 6, 30),
+                constraints,
+                mode,
+                new SolverStats()
+            );
+            testSolution(solution, constraints);
+        }
+    }
+    
+    @Test
+    public void CSP_backjumping_t1() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "==", 9),
+                new BinaryDateConstraint(0, "!=", 9)
+            )
+        );
+        
+        // Meetings 1-8 are unconstrained, so every dead end at meeting 9 is
+        // really meeting 0's fault: chronological backtracking retries all
+        // of 1-8 first, while backjumping goes straight back to 0
+        SolverStats backtracking = new SolverStats(),
+                    backjumping = new SolverStats(),
+                    learning = new SolverStats();
+        assertNull(CSP.solve(10, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, CSP.SearchMode.BACKTRACKING, backtracking));
+        assertNull(CSP.solve(10, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, CSP.SearchMode.BACKJUMPING, backjumping));
+        assertNull(CSP.solve(10, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, CSP.SearchMode.BACKJUMPING_WITH_NOGOODS, learning));
+        
+        assertTrue(backjumping.getNodes() * 100 < backtracking.getNodes());
+        assertTrue(learning.getNodes() <= backjumping.getNodes());
+    }
+    
+    @Test
+    public void CSP_session_t0() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, "<=", LocalDate.of(2019, 1, 2)),
+                new UnaryDateConstraint(1, "<=", LocalDate.of(2019, 1, 2)),
+                new BinaryDateConstraint(0, "!=", 1)
+            )
+        );
+        SolverSession session = new SolverSession(4, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), constraints);
+        testSolution(session.getSolution(), session.getConstraints());
+        
+        // Moving meeting 2 after meeting 0 only needs 2 (and maybe 0) re-searched
+        BinaryDateConstraint after = new BinaryDateConstraint(2, ">", 0);
+        testSolution(session.addConstraint(after), session.getConstraints());
+        assertTrue(session.getLastRepairSize() <= 2);
+        
+        // Removing a constraint keeps the current solution as-is
+        List<LocalDate> before = session.getSolution();
+        assertEquals(before, session.removeConstraint(after));
+        assertEquals(0, session.getLastRepairSize());
+    }
+    
+    @Test
+    public void CSP_session_t1() {
+        SolverSession session = new SolverSession(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 2));
+        session.addConstraint(new BinaryDateConstraint(0, "!=", 1));
+        session.addConstraint(new BinaryDateConstraint(1, "!=", 2));
+        testSolution(session.getSolution(), session.getConstraints());
+        
+        // Same as CSP_t5 once the third != arrives, and feasible again
+        // once it leaves
+        BinaryDateConstraint last = new BinaryDateConstraint(0, "!=", 2);
+        assertNull(session.addConstraint(last));
+        // Adding it again is a no-op, so one removal takes it out for good
+        assertNull(session.addConstraint(last));
+        assertNull(session.addConstraint(new UnaryDateConstraint(0, "==", LocalDate.of(2019, 1, 1))));
+        testSolution(session.removeConstraint(last), session.getConstraints());
+    }
+    
+    @Test
+    public void CSP_minConflicts_t0() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", (i + 1) % 500));
+            constraints.add(new BinaryDateConstraint(i, "!=", (i + 7) % 500));
+            if (i % 10 == 0) {
+                constraints.add(new BinaryDateConstraint(i, "<", i + 5));
+            }
+        }
+        
+        // 500 interlocking meetings in a 5-day window: too many for
+        // backtracking, but min-conflicts settles it in a few moves each
+        MinConflicts solver = new MinConflicts(500, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), constraints, 282);
+        List<LocalDate> solution = solver.solve(1_000_000, 5_000);
+        testSolution(solution, constraints);
+        
+        // Seeding with a solution is already done
+        testSolution(solver.solve(solution, 1_000_000, 5_000), constraints);
+        assertEquals(0, solver.getIterations());
+        
+        // A time limit too large to count in nanoseconds is no limit at all
+        testSolution(solver.solve(1_000_000, Long.MAX_VALUE / 1000), constraints);
+    }
+    
+    @Test
+    public void CSP_minConflicts_t1() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(0, "!=", 2),
+                new BinaryDateConstraint(1, "!=", 2)
+            )
+        );
+        
+        // CSP_t5 is infeasible, so the budget runs out but the best
+        // assignment found only breaks a single constraint
+        MinConflicts solver = new MinConflicts(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 2), constraints, 282);
+        assertNull(solver.solve(10_000, 0));
+        assertEquals(1, solver.getBestConflicts());
+        assertEquals(3, solver.getBestAssignment().size());
+    }
+    
+    @Test
+    public void CSP_solutions_t0() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(0, "!=", 2),
+                new BinaryDateConstraint(1, "!=", 2)
+            )
+        );
+        
+        // CSP_t6 has exactly the 3! orderings of the 3 dates as solutions
+        Set<List<LocalDate>> solutions = new HashSet<>();
+        Iterator<List<LocalDate>> it = Solutions.iterator(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, Long.MAX_VALUE, null);
+        while (it.hasNext()) {
+            List<LocalDate> solution = it.next();
+            testSolution(solution, constraints);
+            solutions.add(solution);
+        }
+        assertEquals(6, solutions.size());
+        assertEquals(6, Solutions.count(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, Long.MAX_VALUE, null));
+        assertEquals(4, Solutions.stream(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, 4, null).count());
+        
+        // ...and CSP_t5 has none
+        assertFalse(Solutions.iterator(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 2), constraints, Long.MAX_VALUE, null).hasNext());
+        assertEquals(0, Solutions.count(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 2), constraints, Long.MAX_VALUE, null));
+    }
+    
+    @Test
+    public void CSP_solutions_t1() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 59; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", i + 1));
+        }
+        constraints.add(new BinaryDateConstraint(60, "<", 61));
+        
+        // A 60-meeting chain of != over 3 days has 3 * 2^59 schedules, and the
+        // separate pair 60 < 61 has 3 more; far too many to enumerate, but
+        // each chain link only depends on the date of the one before it
+        assertEquals(3L * (1L << 59) * 3, Solutions.count(62, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, Long.MAX_VALUE, null));
+        assertEquals(1000, Solutions.count(62, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, 1000, null));
+        
+        AtomicBoolean cancelled = new AtomicBoolean(true);
+        assertFalse(Solutions.iterator(62, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, Long.MAX_VALUE, cancelled).hasNext());
+        try {
+            Solutions.count(62, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, Long.MAX_VALUE, cancelled);
+            fail("Expected cancellation");
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void CSP_optimizer_t0() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">", LocalDate.of(2019, 1, 3)),
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(1, "==", 2),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(3, "==", 4),
+                new BinaryDateConstraint(4, "<", 0),
+                new BinaryDateConstraint(3, ">", 2)
+            )
+        );
+        
+        // CSP_t7's puzzle with meeting 0 pushed past the 3rd: the optimum of
+        // each objective must match the best over every solution
+        for (Optimizer.Objective objective : Optimizer.Objective.values()) {
+            Optimizer optimizer = new Optimizer(5, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 10), constraints, objective);
+            List<LocalDate> solution = optimizer.solve(0);
+            testSolution(solution, constraints);
+            assertTrue(optimizer.isOptimal());
+            
+            long expected = Solutions.stream(5, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 10), constraints, Long.MAX_VALUE, null)
+                .mapToLong(s -> {
+                    LocalDate first = s.stream().min(LocalDate::compareTo).get(),
+                              last = s.stream().max(LocalDate::compareTo).get();
+                    return (objective == Optimizer.Objective.LATEST_DATE) ? last.toEpochDay() : last.toEpochDay() - first.toEpochDay();
+                })
+                .min().getAsLong();
+            assertEquals(expected, optimizer.getBestCost());
+        }
+    }
+    
+    @Test
+    public void CSP_optimizer_t1() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", (i + 1) % 30));
+        }
+        
+        // Earliest possible schedule for a 30-meeting cycle of != (an even
+        // cycle, so two days suffice) in a whole year
+        Optimizer optimizer = new Optimizer(30, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31), constraints, Optimizer.Objective.LATEST_DATE);
+        List<LocalDate> solution = optimizer.solve(5_000);
+        testSolution(solution, constraints);
+        assertEquals(LocalDate.of(2019, 1, 2).toEpochDay(), optimizer.getBestCost());
+        
+        // Each meeting of a 31-cycle differs from the next two, so it takes
+        // four days (a spread of 3), and thousands of nodes to prove that
+        // three won't do; a time limit too large to count in nanoseconds must
+        // not cut that proof short
+        Set<DateConstraint> cycle = new HashSet<>();
+        for (int i = 0; i < 31; i++) {
+            cycle.add(new BinaryDateConstraint(i, "!=", (i + 1) % 31));
+            cycle.add(new BinaryDateConstraint(i, "!=", (i + 2) % 31));
+        }
+        optimizer = new Optimizer(31, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 10), cycle, Optimizer.Objective.SPREAD);
+        testSolution(optimizer.solve(Long.MAX_VALUE / 1000), cycle);
+        assertEquals(3, optimizer.getBestCost());
+        assertTrue(optimizer.isOptimal() && optimizer.getNodes() > 1024);
+        
+        // An infeasible calendar has nothing to optimize
+        constraints.add(new BinaryDateConstraint(0, "==", 1));
+        assertNull(new Optimizer(30, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), constraints, Optimizer.Objective.SPREAD).solve(5_000));
+    }
+    
+    @Test
+    public void CSP_decomposition_t0() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int group = 0; group < 8; group++) {
+            int base = group * 3;
+            constraints.add(new BinaryDateConstraint(base, "!=", base + 1));
+            constraints.add(new BinaryDateConstraint(base, "!=", base + 2));
+            constraints.add(new BinaryDateConstraint(base + 1, "!=", base + 2));
+        }
+        assertEquals(8, Decomposition.components(24, constraints).size());
+        
+        // 8 independent copies of CSP_t6 plus one of CSP_t5 at the end:
+        // as one search, each failure of the last group would be retried
+        // under every combination of the first 8
+        constraints.add(new BinaryDateConstraint(24, "!=", 25));
+        constraints.add(new BinaryDateConstraint(24, "!=", 26));
+        constraints.add(new BinaryDateConstraint(25, "!=", 26));
+        constraints.add(new UnaryDateConstraint(24, "<=", LocalDate.of(2019, 1, 2)));
+        constraints.add(new UnaryDateConstraint(25, "<=", LocalDate.of(2019, 1, 2)));
+        constraints.add(new UnaryDateConstraint(26, "<=", LocalDate.of(2019, 1, 2)));
+        for (boolean parallel : new boolean[] {false, true}) {
+            assertNull(Decomposition.solve(27, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints,
+                                           CSP.SearchMode.BACKTRACKING, new SolverStats(), parallel));
+        }
+        
+        // Dropping the impossible group's unary constraints stitches all 9 back together
+        constraints.removeIf(c -> c.arity() == 1);
+        for (boolean parallel : new boolean[] {false, true}) {
+            List<LocalDate> solution = Decomposition.solve(27, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints,
+                                                           CSP.SearchMode.BACKJUMPING, new SolverStats(), parallel);
+            assertEquals(27, solution.size());
+            testSolution(solution, constraints);
+        }
+    }
+    
+    @Test
+    public void CSP_global_t0() {
+        // Pigeonhole: 12 meetings that must all differ over 11 days. Pairwise
+        // != only sees two meetings at a time, so backtracking would explore
+        // a huge tree; the matching propagator fails before any search
+        int[] vars = new int[12];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = i;
+        }
+        Set<DateConstraint> constraints = new HashSet<>(Arrays.asList(new AllDifferentConstraint(vars)));
+        assertNull(CSP.propagateDomains(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 11), constraints));
+        for (CSP.SearchMode mode : CSP.SearchMode.values()) {
+            assertNull(CSP.solve(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 11), constraints, mode, new SolverStats()));
+        }
+        
+        // Meetings 0-2 only fit on the 1st-3rd, so they take those days
+        // from every other meeting of the scope
+        for (int i = 0; i < 3; i++) {
+            constraints.add(new UnaryDateConstraint(i, "<=", LocalDate.of(2019, 1, 3)));
+        }
+        List<CSP.DateVar> domains = CSP.propagateDomains(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 12), constraints);
+        for (int i = 3; i < 12; i++) {
+            assertEquals(9, domains.get(i).domain.size());
+            assertFalse(domains.get(i).domain.contains(LocalDate.of(2019, 1, 2)));
+        }
+        for (CSP.SearchMode mode : CSP.SearchMode.values()) {
+            testSolution(CSP.solve(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 12), constraints, mode, new SolverStats()), constraints);
+        }
+        testSolution(new MinConflicts(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 12), constraints, 1).solve(100_000, 0), constraints);
+    }
+    
+    @Test
+    public void CSP_global_t1() {
+        // At most 2 of 7 meetings per day over 4 days, with 0 < 1 < 2
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new DayCapacityConstraint(2, 0, 1, 2, 3, 4, 5, 6),
+                new BinaryDateConstraint(0, "<", 1),
+                new BinaryDateConstraint(1, "<", 2),
+                new UnaryDateConstraint(3, "==", LocalDate.of(2019, 1, 2))
+            )
+        );
+        for (CSP.SearchMode mode : CSP.SearchMode.values()) {
+            testSolution(CSP.solve(7, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 4), constraints, mode, new SolverStats()), constraints);
+        }
+        testSolution(CSP.solve(7, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 4), constraints), constraints);
+        assertEquals(7, Solutions.stream(7, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 4), constraints, Long.MAX_VALUE, null)
+            .peek(solution -> testSolution(solution, constraints))
+            .limit(7).count());
+        
+        // 9 meetings can no longer fit in 4 days of 2
+        SolverSession session = new SolverSession(9, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 4), constraints);
+        testSolution(session.getSolution(), constraints);
+        assertNull(session.addConstraint(new DayCapacityConstraint(2, 0, 1, 2, 3, 4, 5, 6, 7, 8)));
+    }
+    
+    @Test
+    public void CSP_global_t2() {
+        // Meeting 7 only fits on the 1st or 2nd, which root filtering leaves
+        // open to the others too; forward checking takes the last of those
+        // days from the others before they can use it, so backtracking over
+        // an alldifferent never has to undo an assignment
+        Set<DateConstraint> constraints = new HashSet<>();
+        constraints.add(new AllDifferentConstraint(0, 1, 2, 3, 4, 5, 6, 7));
+        constraints.add(new UnaryDateConstraint(7, "<=", LocalDate.of(2019, 1, 2)));
+        for (int i = 0; i < 7; i++) {
+            // Vacuous, but keeps the meetings from being interchangeable
+            constraints.add(new UnaryDateConstraint(i, "<=", LocalDate.of(2019, 2, 1 + i)));
+        }
+        SolverStats stats = new SolverStats();
+        List<LocalDate> solution = CSP.solve(8, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 8), constraints,
+                                             CSP.SearchMode.BACKTRACKING, stats);
+        testSolution(solution, constraints);
+        assertEquals(0, stats.getBacktracks());
+        assertEquals(8, stats.getNodes());
+        
+        // Meetings 2 and 3 both need the day 0 and 1 leave free, which
+        // neither alldifferent sees at the root; the wipeouts of forward
+        // checking show up in the stats
+        constraints = new HashSet<>(Arrays.asList(new AllDifferentConstraint(0, 1, 2), new AllDifferentConstraint(0, 1, 3),
+                                                  new BinaryDateConstraint(2, "<", 3)));
+        stats = new SolverStats();
+        assertNull(CSP.solve(4, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, CSP.SearchMode.BACKTRACKING, stats));
+        assertTrue(stats.getNodes() > 0);
+        assertTrue(stats.getWipeouts() > 0);
+        assertTrue(stats.getPropagationNanos() + stats.getSearchNanos() <= stats.getElapsedNanos());
+    }
+    
+    @Test
+    public void CSP_limits_t0() {
+        // 12 meetings that pairwise differ over 11 days: without a global
+        // constraint, backtracking needs far more than the limits allow.
+        // Distinct (vacuous) unary constraints keep the meetings from being
+        // interchangeable, so symmetry breaking does not shortcut the search
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            constraints.add(new UnaryDateConstraint(i, "!=", LocalDate.of(2019, 2, 1 + i)));
+            for (int j = i + 1; j < 12; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        for (CSP.SearchMode mode : CSP.SearchMode.values()) {
+            SolverStats stats = new SolverStats();
+            assertNull(CSP.solve(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 11), constraints, mode, stats, new SolverLimits(0, 5_000, null)));
+            assertTrue(stats.isLimitReached());
+            assertEquals(5_000, stats.getNodes());
+            assertEquals(constraints.size() + 1, stats.getPropagations());
+            
+            stats = new SolverStats();
+            assertNull(CSP.solve(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 11), constraints, mode, stats, new SolverLimits(100, 0, null)));
+            assertTrue(stats.isLimitReached());
+            assertTrue(stats.getElapsedNanos() < 5_000_000_000L);
+        }
+        
+        // A cancelled request stops before its first node
+        SolverStats stats = new SolverStats();
+        assertNull(Decomposition.solve(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 11), constraints, CSP.SearchMode.BACKTRACKING,
+                                       stats, true, new SolverLimits(0, 0, new AtomicBoolean(true))));
+        assertTrue(stats.isLimitReached());
+        assertEquals(0, stats.getNodes());
+    }
+    
+    @Test
+    public void CSP_limits_t1() throws InterruptedException {
+        // CSP_t5 is proven infeasible by a wipeout, not by hitting a limit
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(0, "!=", 2),
+                new BinaryDateConstraint(1, "!=", 2),
+                new UnaryDateConstraint(0, "<=", LocalDate.of(2019, 1, 2)),
+                new UnaryDateConstraint(1, "<=", LocalDate.of(2019, 1, 2)),
+                new UnaryDateConstraint(2, "<=", LocalDate.of(2019, 1, 2)),
+                new UnaryDateConstraint(2, ">", LocalDate.of(2019, 1, 2))
+            )
+        );
+        SolverStats stats = new SolverStats();
+        assertNull(CSP.solve(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, CSP.SearchMode.BACKJUMPING, stats, new SolverLimits(1_000, 1_000, null)));
+        assertFalse(stats.isLimitReached());
+        assertEquals(1, stats.getWipeouts());
+        
+        // A generous budget changes nothing about a solvable calendar
+        constraints.removeIf(c -> c.arity() == 1);
+        stats = new SolverStats();
+        testSolution(CSP.solve(3, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3), constraints, CSP.SearchMode.BACKTRACKING, stats, new SolverLimits(1_000, 1_000, null)), constraints);
+        assertFalse(stats.isLimitReached());
+        assertEquals(0, stats.getWipeouts());
+        assertTrue(stats.getPropagationNanos() + stats.getSearchNanos() <= stats.getElapsedNanos());
+        
+        // A time limit too large to count in nanoseconds is no limit at all
+        SolverLimits.Budget budget = new SolverLimits(Long.MAX_VALUE, 0, null).start();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(budget.spend());
+        }
+        SolverLimits.Deadline deadline = new SolverLimits.Deadline(1);
+        Thread.sleep(5);
+        assertTrue(deadline.passed());
+        assertFalse(new SolverLimits.Deadline(0).passed());
+    }
+    
+    @Test
+    public void CSP_domains_t0() {
+        // A 10-year horizon for 5000 meetings builds the range's dates once
+        List<CSP.DateVar> domains = new java.util.ArrayList<>();
+        CSP.initializeDomains(domains, 5000, LocalDate.of(2019, 1, 1), LocalDate.of(2028, 12, 31));
+        assertEquals(3653, domains.get(0).domain.size());
+        for (CSP.DateVar var : domains) {
+            assertSame(domains.get(0).domain, var.domain);
+        }
+        
+        // Pruning one meeting copies only its own domain
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, "<", LocalDate.of(2019, 2, 1)),
+                new BinaryDateConstraint(1, "!=", 2)
+            )
+        );
+        domains = CSP.propagateDomains(5000, LocalDate.of(2019, 1, 1), LocalDate.of(2028, 12, 31), constraints);
+        assertEquals(31, domains.get(0).domain.size());
+        assertEquals(3653, domains.get(1).domain.size());
+        assertSame(domains.get(1).domain, domains.get(4999).domain);
+        testSolution(CSP.solve(5000, LocalDate.of(2019, 1, 1), LocalDate.of(2028, 12, 31), constraints), constraints);
+    }
+    
+    @Test
+    public void CSP_batch_t0() throws Exception {
+        String input = String.join("\n",
+            "# CSP_t2, CSP_t5 and a malformed line",
+            "t2 3 2019-01-01 2019-01-05 ; 0 == 1 ; 1 > 2 ; 0 <= 2019-01-02 ; alldiff 1 2",
+            "",
+            "t5 3 2019-01-01 2019-01-03 ; 0 != 1 ; 0 != 2 ; 1 != 2 ; cap 1 0 1 2 ; 2 > 2019-01-02 ; 2 <= 2019-01-02",
+            "bad 3 2019-01-01 2019-01-03 ; 0 ?? 1");
+        
+        ProblemFormat.Problem problem = ProblemFormat.read(new java.io.BufferedReader(new java.io.StringReader(input)));
+        assertEquals("t2", problem.ID);
+        assertEquals(4, problem.CONSTRAINTS.size());
+        testSolution(CSP.solve(problem.N_MEETINGS, problem.RANGE_START, problem.RANGE_END, problem.CONSTRAINTS), problem.CONSTRAINTS);
+        // Constraint order follows the set, so compare the fields sorted
+        String[] written = ProblemFormat.format(problem).split(" ; "),
+                 rewritten = ProblemFormat.format(ProblemFormat.parse(String.join(" ; ", written))).split(" ; ");
+        Arrays.sort(written);
+        Arrays.sort(rewritten);
+        assertArrayEquals(written, rewritten);
+        
+        java.io.StringWriter out = new java.io.StringWriter();
+        assertEquals(3, BatchSolver.run(new java.io.BufferedReader(new java.io.StringReader(input)), out, 2,
+                                        SolverLimits.NONE, CSP.SearchMode.BACKJUMPING));
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        Arrays.sort(lines);
+        assertTrue(lines[0].startsWith("{\"id\":\"t2\",\"status\":\"SAT\",\"solution\":[\"2019-01-0"));
+        assertTrue(lines[1].startsWith("{\"id\":\"t5\",\"status\":\"UNSAT\""));
+        assertTrue(lines[2].startsWith("{\"line\":5,\"status\":\"ERROR\""));
+        
+        // A problem that parses but fails in the solver (here its range is
+        // too large to build) still gets its line, under its id
+        assertTrue(BatchSolver.solve("huge 1 -3000000-01-01 +3000000-01-01", 1, SolverLimits.NONE, CSP.SearchMode.BACKJUMPING)
+                              .startsWith("{\"id\":\"huge\",\"status\":\"ERROR\",\"error\":"));
+        
+        // So does one whose recursive search overflows a small stack
+        StringBuilder chain = new StringBuilder("deep 3000 2019-01-01 2019-01-02");
+        for (int i = 0; i < 2999; i++) {
+            chain.append(" ; ").append(i).append(" != ").append(i + 1);
+        }
+        String[] deep = new String[1];
+        Thread small = new Thread(null, () -> deep[0] = BatchSolver.solve(chain.toString(), 1, SolverLimits.NONE, CSP.SearchMode.BACKTRACKING),
+                                  "small-stack", 64 * 1024);
+        small.start();
+        small.join();
+        assertTrue(deep[0].startsWith("{\"id\":\"deep\",\"status\":\"ERROR\",\"error\":\"java.lang.StackOverflowError"));
+    }
+    
+    @Test
+    public void CSP_generator_t0() {
+        // Same seed, same instance; density fixes the number of constraints
+        ProblemFormat.Problem problem = InstanceGenerator.generate(42, 40, 10, 0.25, 0.3),
+                              again = InstanceGenerator.generate(42, 40, 10, 0.25, 0.3);
+        String[] first = ProblemFormat.format(problem).split(" ; "),
+                 second = ProblemFormat.format(again).split(" ; ");
+        Arrays.sort(first);
+        Arrays.sort(second);
+        assertArrayEquals(first, second);
+        assertEquals(195, problem.CONSTRAINTS.size());
+        assertEquals(LocalDate.of(2019, 1, 10), problem.RANGE_END);
+        
+        // Dense instances are sampled without repeating a pair
+        assertEquals(40 * 39 / 2, InstanceGenerator.generate(7, 40, 10, 1.0, 0.5).CONSTRAINTS.size());
+        assertEquals(0.1, InstanceGenerator.tightness("!=", 10), 1e-9);
+        assertEquals(0.9, InstanceGenerator.tightness("==", 10), 1e-9);
+        
+        // Loose instances solve; every answer is a real solution
+        for (long seed = 0; seed < 5; seed++) {
+            ProblemFormat.Problem loose = InstanceGenerator.generate(seed, 20, 10, 0.2, 0.1);
+            testSolution(CSP.solve(loose.N_MEETINGS, loose.RANGE_START, loose.RANGE_END, loose.CONSTRAINTS), loose.CONSTRAINTS);
+        }
+    }
+    
+    @Test
+    public void CSP_symmetry_t0() {
+        // 12 meetings that pairwise differ over 11 days are all alike
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            for (int j = i + 1; j < 12; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        List<int[]> groups = Symmetry.interchangeable(12, constraints);
+        assertEquals(1, groups.size());
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}, groups.get(0));
+        assertEquals(constraints.size() + 11, Symmetry.breakSymmetry(12, constraints).size());
+        assertEquals(66, constraints.size());
+        assertNull(CSP.solve(12, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 11), constraints));
+        
+        // Orientation and unary constraints separate meetings: 1 and 2
+        // both follow 0, but only 2 is bounded
+        Set<DateConstraint> ordered = new HashSet<>(Arrays.asList(
+            new BinaryDateConstraint(0, "<", 1),
+            new BinaryDateConstraint(2, ">", 0),
+            new BinaryDateConstraint(3, "<", 4),
+            new UnaryDateConstraint(2, "!=", LocalDate.of(2019, 1, 2))
+        ));
+        assertTrue(Symmetry.interchangeable(5, ordered).isEmpty());
+        ordered.add(new UnaryDateConstraint(1, "!=", LocalDate.of(2019, 1, 2)));
+        groups = Symmetry.interchangeable(5, ordered);
+        assertEquals(1, groups.size());
+        assertArrayEquals(new int[] {1, 2}, groups.get(0));
+        
+        // Broken symmetry still leaves a real solution
+        Set<DateConstraint> together = new HashSet<>(Arrays.asList(
+            new AllDifferentConstraint(new int[] {0, 1, 2, 3}),
+            new BinaryDateConstraint(4, "<", 0),
+            new BinaryDateConstraint(4, "<", 1),
+            new BinaryDateConstraint(4, "<", 2),
+            new BinaryDateConstraint(4, "<", 3)
+        ));
+        testSolution(CSP.solve(5, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), together), together);
+    }
+    
 }
@@ -0,0 +1,305 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import csp.CSP.DateVar;
+
+/**
+ * ConflictSearch: conflict-directed backjumping (CBJ) over the same
+ * variable and value order as CSP.backtrack. Each level keeps the set of
+ * earlier levels whose assignments ruled out one of its values; at a dead
+ * end the search jumps straight back to the deepest of those levels
+ * instead of the previous one, merging the conflict sets as it goes.
+ * Global constraints are checked on the assigned meetings only, not
+ * forward checked as in CSP.backtrack: a value pruned by a propagator has
+ * no culprit levels to jump back to, so their filtering stays at the root.
+ *
+ * Optionally, each dead end is also recorded as a nogood (the partial
+ * assignment of its conflict set) in a bounded, least-recently-used store
+ * so the same combination is rejected outright if it comes up again.
+ */
+class ConflictSearch {
+
+    static final int DEFAULT_NOGOOD_CAPACITY = 10_000;
+
+    private final int nVars;
+    private final List<List<LocalDate>> values;
+    private final List<List<DateConstraint>> incident;
+    private final LocalDate[] assignment;
+    private final int[] next;
+    private final BitSet[] conflicts;
+    private final BitSet explanation;
+    private final List<LocalDate> assignmentView;
+    private final NogoodStore nogoods;
+    private final SolverStats stats;
+    private final SolverLimits.Budget budget;
+
+    /**
+     * @param domains Preprocessed domains, searched in their iteration order
+     * @param constraints Constraints of the problem
+     * @param nogoodCapacity Maximum number of nogoods kept, 0 to disable learning
+     * @param stats [Side Effect] accumulates search statistics
+     * @param budget Limits on the search, charged one node per value tried
+     */
+    ConflictSearch (List<DateVar> domains, Set<DateConstraint> constraints, int nogoodCapacity, SolverStats stats, SolverLimits.Budget budget) {
+        nVars = domains.size();
+        values = new ArrayList<>(nVars);
+        for (DateVar var : domains) {
+            values.add(new ArrayList<>(var.domain));
+        }
+        incident = CSP.indexConstraints(nVars, constraints);
+        assignment = new LocalDate[nVars];
+        assignmentView = Arrays.asList(assignment);
+        explanation = new BitSet(nVars);
+        next = new int[nVars];
+        conflicts = new BitSet[nVars];
+        for (int i = 0; i < nVars; i++) {
+            conflicts[i] = new BitSet(nVars);
+        }
+        nogoods = (nogoodCapacity > 0) ? new NogoodStore(nogoodCapacity) : null;
+        this.stats = stats;
+        this.budget = budget;
+    }
+
+    /**
+     * Variables are assigned in index order, so a variable's level in the
+     * search is its own index.
+     * @return A satisfying assignment, or null if none exists or the budget ran out
+     */
+    List<LocalDate> search () {
+        int level = 0;
+        while (level < nVars) {
+            if (assignNext(level)) {
+                level++;
+                if (level < nVars) {
+                    next[level] = 0;
+                    conflicts[level].clear();
+                }
+                continue;
+            }
+
+            if (budget.isExhausted()) {
+                stats.limitReached = true;
+                return null;
+            }
+
+            // Dead end: every value of this level failed
+            stats.backtracks++;
+            BitSet culprits = conflicts[level];
+            if (culprits.isEmpty()) {
+                return null;
+            }
+            if (nogoods != null) {
+                nogoods.record(culprits, assignment);
+                stats.nogoodsRecorded++;
+            }
+
+            int target = culprits.length() - 1;
+            stats.backjumpLevels += level - target - 1;
+            conflicts[target].or(culprits);
+            conflicts[target].clear(target);
+            for (int i = target; i <= level; i++) {
+                assignment[i] = null;
+            }
+            level = target;
+        }
+
+        List<LocalDate> result = new ArrayList<>(nVars);
+        for (LocalDate date : assignment) {
+            result.add(date);
+        }
+        return result;
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * Tries the remaining values of the given level, adding the culprit
+     * level of each rejected value to the level's conflict set.
+     * @return true if some value was consistent and is now assigned, false
+     *         at a dead end or once the budget runs out
+     */
+    private boolean assignNext (int level) {
+        List<LocalDate> candidates = values.get(level);
+        while (next[level] < candidates.size()) {
+            if (!budget.spend()) {
+                return false;
+            }
+            LocalDate date = candidates.get(next[level]++);
+            stats.nodes++;
+
+            assignment[level] = date;
+            if (!explainConflict(level, date)) {
+                conflicts[level].or(explanation);
+                assignment[level] = null;
+                continue;
+            }
+            if (nogoods != null && nogoods.violated(level, assignment, conflicts[level])) {
+                stats.nogoodPrunes++;
+                assignment[level] = null;
+                continue;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks the date just assigned at the given level against the earlier
+     * levels. On a conflict, explanation is left holding the violated
+     * constraint's culprit levels whose deepest level is shallowest (empty
+     * for a unary failure, which no earlier level can be blamed for).
+     * @return true if the date is consistent with every assigned variable
+     */
+    private boolean explainConflict (int level, LocalDate date) {
+        boolean consistent = true;
+        int bestDeepest = Integer.MAX_VALUE;
+        explanation.clear();
+        for (DateConstraint constraint : incident.get(level)) {
+            if (constraint instanceof UnaryDateConstraint) {
+                if (!CSP.checkConsistency(date, ((UnaryDateConstraint) constraint).R_VAL, constraint)) {
+                    explanation.clear();
+                    return false;
+                }
+                continue;
+            }
+
+            int[] culprits;
+            if (constraint instanceof GlobalDateConstraint) {
+                culprits = ((GlobalDateConstraint) constraint).conflictSet(level, assignmentView);
+            } else {
+                BinaryDateConstraint binary = (BinaryDateConstraint) constraint;
+                int other = (binary.L_VAL == level) ? binary.R_VAL : binary.L_VAL;
+                if (assignment[other] == null) {
+                    continue;
+                }
+                boolean satisfied = (binary.L_VAL == level)
+                    ? CSP.checkConsistency(date, assignment[other], constraint)
+                    : CSP.checkConsistency(assignment[other], date, constraint);
+                culprits = satisfied ? null : new int[] {other};
+            }
+            if (culprits == null) {
+                continue;
+            }
+
+            consistent = false;
+            int deepest = Arrays.stream(culprits).max().orElse(-1);
+            if (deepest < bestDeepest) {
+                bestDeepest = deepest;
+                explanation.clear();
+                for (int culprit : culprits) {
+                    explanation.set(culprit);
+                }
+            }
+        }
+        return consistent;
+    }
+
+    /**
+     * Bounded store of nogoods, each watched by the (variable, date) pair of
+     * its deepest variable: when that variable takes that date all other
+     * variables of the nogood are already assigned, so one hash lookup finds
+     * every nogood that could fire. Evicts the least recently used nogood
+     * once the capacity is reached.
+     */
+    static class NogoodStore {
+        private final int capacity;
+        private final Map<Long, List<Nogood>> watches = new HashMap<>();
+        private final LinkedHashMap<Nogood, Boolean> recency = new LinkedHashMap<>(16, 0.75f, true);
+
+        NogoodStore (int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Records that the assignment restricted to the given levels has no
+         * consistent extension.
+         */
+        void record (BitSet levels, LocalDate[] assignment) {
+            int[] vars = levels.stream().toArray();
+            LocalDate[] dates = new LocalDate[vars.length];
+            for (int i = 0; i < vars.length; i++) {
+                dates[i] = assignment[vars[i]];
+            }
+
+            Nogood nogood = new Nogood(vars, dates);
+            if (recency.size() >= capacity) {
+                Iterator<Nogood> oldest = recency.keySet().iterator();
+                Nogood evicted = oldest.next();
+                oldest.remove();
+                List<Nogood> watching = watches.get(evicted.watch());
+                watching.remove(evicted);
+                if (watching.isEmpty()) {
+                    watches.remove(evicted.watch());
+                }
+            }
+            recency.put(nogood, Boolean.TRUE);
+            watches.computeIfAbsent(nogood.watch(), k -> new ArrayList<>()).add(nogood);
+        }
+
+        /**
+         * Checks the nogoods watched by the given level's current date and,
+         * if one matches the assignment, adds its other levels to conflicts.
+         * @return true if some nogood rules out the current assignment
+         */
+        boolean violated (int level, LocalDate[] assignment, BitSet conflicts) {
+            List<Nogood> watching = watches.get(key(level, assignment[level]));
+            if (watching == null) {
+                return false;
+            }
+            for (Nogood nogood : watching) {
+                if (nogood.matches(assignment)) {
+                    recency.get(nogood);
+                    for (int i = 0; i < nogood.vars.length - 1; i++) {
+                        conflicts.set(nogood.vars[i]);
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        static long key (int var, LocalDate date) {
+            return ((long) var << 32) | (date.toEpochDay() & 0xffffffffL);
+        }
+    }
+
+    /**
+     * Partial assignment vars[i] = dates[i] known to have no solution, with
+     * vars in increasing order.
+     */
+    static class Nogood {
+        final int[] vars;
+        final LocalDate[] dates;
+
+        Nogood (int[] vars, LocalDate[] dates) {
+            this.vars = vars;
+            this.dates = dates;
+        }
+
+        long watch () {
+            int last = vars.length - 1;
+            return NogoodStore.key(vars[last], dates[last]);
+        }
+
+        boolean matches (LocalDate[] assignment) {
+            for (int i = 0; i < vars.length; i++) {
+                if (!dates[i].equals(assignment[vars[i]])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
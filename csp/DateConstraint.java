@@ -1,9 +1,5 @@
 package csp;
 
-import java.util.Arrays;
-import java.util.Set;
-import java.util.HashSet;
-
 /**
  * DateConstraint superclass: all date constraints will have
  * an L_VAL variable and some operation that compares it to
@@ -13,15 +9,10 @@ public abstract class DateConstraint {
 
     public final int L_VAL;
     public final String OP;
-    
-    private final Set<String> LEGAL_OPS = new HashSet<>(
-        Arrays.asList("==", "!=", "<", "<=", ">", ">=")
-    );
+    public final Operator OPERATOR;
     
     DateConstraint (int lVal, String operator) {
-        if (!LEGAL_OPS.contains(operator)) {
-            throw new IllegalArgumentException("Invalid constraint operator");
-        }
+        OPERATOR = Operator.of(operator);
         if (lVal < 0) {
             throw new IllegalArgumentException("Invalid variable index");
         }
@@ -33,10 +24,20 @@ public abstract class DateConstraint {
     /**
      * The arity of a constraint determines the number of variables
      * found within
-     * @return 1 for UnaryDateConstraints, 2 for Binary
+     * @return 1 for UnaryDateConstraints, 2 for Binary, the number of
+     *         meetings in scope for GlobalDateConstraints
      */
     public int arity () {
-        return (this instanceof UnaryDateConstraint) ? 1 : 2;
+        return scope().length;
+    }
+    
+    /**
+     * The meeting variable indexes this constraint mentions; callers must
+     * not modify the returned array.
+     * @return The constraint's variable indexes
+     */
+    public int[] scope () {
+        return new int[] {L_VAL};
     }
     
     @Override
@@ -0,0 +1,63 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import csp.CSP.DateVar;
+
+/**
+ * DayCapacityConstraints allow at most CAPACITY of the meetings in VARS
+ * on any single day (a global cardinality constraint with an upper bound
+ * per day), such as:
+ * at most 2 of (0, 1, 2, 3) per day
+ * Filtering is Regin's flow-based GCC algorithm, generalizing the
+ * alldifferent matching (CAPACITY 1) to days that hold several meetings.
+ */
+public class DayCapacityConstraint extends GlobalDateConstraint {
+
+    public final int CAPACITY;
+    
+    /**
+     * Constructs a new DayCapacityConstraint over the given meetings.
+     * @param capacity Maximum number of the meetings allowed on one day
+     * @param vars Distinct meeting variable indexes sharing the capacity
+     */
+    DayCapacityConstraint (int capacity, int... vars) {
+        super(vars, "<=");
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+        
+        CAPACITY = capacity;
+    }
+    
+    @Override
+    public boolean isConsistent (List<LocalDate> assignment) {
+        return MatchingPropagator.withinCapacity(VARS, assignment, CAPACITY);
+    }
+    
+    @Override
+    public int[] conflictSet (int var, List<LocalDate> assignment) {
+        return MatchingPropagator.conflictSet(VARS, var, assignment, CAPACITY);
+    }
+    
+    @Override
+    public boolean propagate (List<DateVar> domains) {
+        return MatchingPropagator.filter(VARS, domains, CAPACITY);
+    }
+    
+    @Override
+    public GlobalDateConstraint remap (int[] local) {
+        int[] vars = new int[VARS.length];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = local[VARS[i]];
+        }
+        return new DayCapacityConstraint(CAPACITY, vars);
+    }
+    
+    @Override
+    public String toString () {
+        return super.toString() + " " + OP + " " + CAPACITY + "/day";
+    }
+    
+}
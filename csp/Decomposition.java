@@ -0,0 +1,187 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import csp.CSP.SearchMode;
+
+/**
+ * Decomposition: splits a calendar into the connected components of its
+ * constraint graph (meetings sharing a binary or global constraint), solves
+ * each component as its own CSP, and stitches the partial schedules back
+ * into one list indexed by the original meetings. Groups of meetings that
+ * never constrain each other are no longer searched as one product space,
+ * so the search cost is exponential only in the largest component.
+ */
+public class Decomposition {
+
+    /**
+     * Solves each component of the calendar independently.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param mode Search algorithm used for every component
+     * @param stats [Side Effect] accumulates the statistics of every component
+     * @param parallel Whether to solve the components concurrently
+     * @return A list of dates that satisfies every constraint, or null if
+     *         some component has no solution
+     */
+    public static List<LocalDate> solve (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints,
+                                         SearchMode mode, SolverStats stats, boolean parallel) {
+        return solve(nMeetings, rangeStart, rangeEnd, constraints, mode, stats, parallel, SolverLimits.NONE);
+    }
+
+    /**
+     * Variant of solve whose limits apply to all components together: the
+     * node limit is shared between them and the time limit covers the
+     * whole solve.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param mode Search algorithm used for every component
+     * @param stats [Side Effect] accumulates the statistics of every component
+     * @param parallel Whether to solve the components concurrently
+     * @param limits Time, node and cancellation limits on the search
+     * @return A list of dates that satisfies every constraint, or null if
+     *         some component has no solution or a limit was reached first
+     */
+    public static List<LocalDate> solve (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints,
+                                         SearchMode mode, SolverStats stats, boolean parallel, SolverLimits limits) {
+        long startTime = System.nanoTime();
+        SolverLimits.Budget budget = limits.start();
+        HashSet<LocalDate> template = CSP.rangeTemplate(rangeStart, rangeEnd);
+        List<int[]> components = components(nMeetings, constraints);
+        List<List<DateConstraint>> incident = CSP.indexConstraints(nMeetings, constraints);
+        List<List<LocalDate>> partials = new ArrayList<>(components.size());
+        List<SolverStats> partialStats = new ArrayList<>(components.size());
+        for (int i = 0; i < components.size(); i++) {
+            partials.add(null);
+            partialStats.add(new SolverStats());
+        }
+
+        // Once one component is infeasible the rest need not be started
+        AtomicBoolean failed = new AtomicBoolean(false);
+        IntStream indexes = IntStream.range(0, components.size());
+        (parallel ? indexes.parallel() : indexes).forEach(i -> {
+            if (failed.get()) { return; }
+            List<LocalDate> partial = solveComponent(components.get(i), incident, template, mode, partialStats.get(i), budget);
+            if (partial == null) {
+                failed.set(true);
+            }
+            partials.set(i, partial);
+        });
+
+        for (SolverStats partial : partialStats) {
+            stats.add(partial);
+        }
+        stats.elapsedNanos += System.nanoTime() - startTime;
+        if (failed.get()) {
+            return null;
+        }
+
+        List<LocalDate> result = new ArrayList<>(nMeetings);
+        CSP.initializeAssignment(result, nMeetings);
+        for (int i = 0; i < components.size(); i++) {
+            int[] component = components.get(i);
+            for (int local = 0; local < component.length; local++) {
+                result.set(component[local], partials.get(i).get(local));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the connected components of the constraint graph with a
+     * union-find over the scope of every binary and global constraint.
+     * @param nMeetings The number of meetings
+     * @param constraints Constraints of the problem
+     * @return Each component's meetings in increasing index order, with the
+     *         components ordered by their smallest meeting
+     */
+    public static List<int[]> components (int nMeetings, Set<DateConstraint> constraints) {
+        int[] parent = new int[nMeetings];
+        for (int i = 0; i < nMeetings; i++) {
+            parent[i] = i;
+        }
+        for (DateConstraint constraint : constraints) {
+            int[] scope = constraint.scope();
+            for (int i = 1; i < scope.length; i++) {
+                int a = find(parent, scope[0]),
+                    b = find(parent, scope[i]);
+                parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+
+        List<int[]> result = new ArrayList<>();
+        int[] componentOf = new int[nMeetings],
+              sizes = new int[nMeetings];
+        for (int i = 0; i < nMeetings; i++) {
+            int root = find(parent, i);
+            if (root == i) {
+                componentOf[i] = result.size();
+                result.add(null);
+            } else {
+                componentOf[i] = componentOf[root];
+            }
+            sizes[componentOf[i]]++;
+        }
+        for (int c = 0; c < result.size(); c++) {
+            result.set(c, new int[sizes[c]]);
+            sizes[c] = 0;
+        }
+        for (int i = 0; i < nMeetings; i++) {
+            int c = componentOf[i];
+            result.get(c)[sizes[c]++] = i;
+        }
+        return result;
+    }
+
+
+    // Helper Methods / Classes
+
+    private static int find (int[] parent, int var) {
+        while (parent[var] != var) {
+            parent[var] = parent[parent[var]];
+            var = parent[var];
+        }
+        return var;
+    }
+
+    /**
+     * Re-indexes one component's meetings and constraints from 0 and
+     * solves it as a standalone CSP.
+     * @return The component's dates in the order of its meetings, or null
+     */
+    private static List<LocalDate> solveComponent (int[] component, List<List<DateConstraint>> incident,
+                                                   HashSet<LocalDate> template, SearchMode mode, SolverStats stats,
+                                                   SolverLimits.Budget budget) {
+        int[] local = new int[incident.size()];
+        for (int i = 0; i < component.length; i++) {
+            local[component[i]] = i;
+        }
+
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int var : component) {
+            for (DateConstraint constraint : incident.get(var)) {
+                // Constraints are listed under every meeting in scope; take them once
+                if (constraint.L_VAL != var) { continue; }
+                if (constraint instanceof GlobalDateConstraint) {
+                    constraints.add(((GlobalDateConstraint) constraint).remap(local));
+                } else if (constraint.arity() == 1) {
+                    constraints.add(new UnaryDateConstraint(local[var], constraint.OP, ((UnaryDateConstraint) constraint).R_VAL));
+                } else {
+                    constraints.add(new BinaryDateConstraint(local[var], constraint.OP, local[((BinaryDateConstraint) constraint).R_VAL]));
+                }
+            }
+        }
+        return CSP.solve(component.length, template, constraints, mode, stats, budget);
+    }
+
+}
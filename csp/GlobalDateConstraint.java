@@ -0,0 +1,81 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import csp.CSP.DateVar;
+
+/**
+ * GlobalDateConstraints are those that relate any number of meeting
+ * variables at once, specified by the int[] VARS of their meeting
+ * indexes, such as:
+ * alldifferent(0, 1, 2, 3)
+ *   OR
+ * at most 2 of (0, 1, 2, 3) per day
+ * Expressing these pairwise would need O(n^2) BinaryDateConstraints that
+ * each only see two meetings; a global constraint propagates over all of
+ * its meetings together.
+ */
+public abstract class GlobalDateConstraint extends DateConstraint {
+
+    public final int[] VARS;
+    
+    /**
+     * Constructs a new GlobalDateConstraint over the given meetings.
+     * @param vars Distinct meeting variable indexes in the constraint's scope
+     * @param operator The comparator the constraint generalizes, used for
+     *        display (e.g. != for alldifferent)
+     */
+    GlobalDateConstraint (int[] vars, String operator) {
+        super(vars.length > 0 ? vars[0] : -1, operator);
+        if (Arrays.stream(vars).anyMatch(v -> v < 0) || Arrays.stream(vars).distinct().count() != vars.length) {
+            throw new IllegalArgumentException("Invalid variable index");
+        }
+        
+        VARS = vars.clone();
+    }
+    
+    @Override
+    public int[] scope () {
+        return VARS;
+    }
+    
+    /**
+     * Checks a (possibly partial) assignment against this constraint,
+     * considering only the meetings that are assigned.
+     * @param assignment Dates indexed by meeting, null where unassigned
+     * @return false if the assigned meetings already violate the constraint
+     */
+    public abstract boolean isConsistent (List<LocalDate> assignment);
+    
+    /**
+     * Explains a violation caused by assigning var, for conflict-directed
+     * search: a set of other meetings whose current dates rule out var's,
+     * preferring the lowest-indexed meetings.
+     * @param var Meeting in scope that was just assigned
+     * @param assignment Dates indexed by meeting, null where unassigned
+     * @return The culprit meetings, or null if var's date is consistent
+     */
+    public abstract int[] conflictSet (int var, List<LocalDate> assignment);
+    
+    /**
+     * Filters the domains of the meetings in scope, removing every date
+     * that cannot take part in any assignment satisfying this constraint.
+     * @param domains List containing the DateVars with each vars domains
+     * @return false if some domain was wiped out (no solution), true otherwise
+     */
+    public abstract boolean propagate (List<DateVar> domains);
+    
+    /**
+     * @param local Map from this constraint's meeting indexes to new ones
+     * @return The same constraint over the re-indexed meetings
+     */
+    public abstract GlobalDateConstraint remap (int[] local);
+    
+    @Override
+    public String toString () {
+        return getClass().getSimpleName() + Arrays.toString(VARS);
+    }
+    
+}
@@ -0,0 +1,145 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import csp.ProblemFormat.Problem;
+
+/**
+ * InstanceGenerator: seeded random calendars in the style of the
+ * classic random binary CSP model, for benchmarking and for probing the
+ * phase transition between easy-satisfiable and easy-unsatisfiable
+ * problems. An instance is described by
+ * <ul>
+ *   <li>nMeetings: the number of variables</li>
+ *   <li>domainSize: the number of days in the range</li>
+ *   <li>density: the fraction of meeting pairs that are constrained</li>
+ *   <li>tightness: the fraction of date pairs each constraint rules out,
+ *       on average</li>
+ * </ul>
+ * Date constraints can only be ==, !=, &lt;, &lt;=, &gt; or &gt;=, whose
+ * tightness over d days is fixed (1/d for != up to 1 - 1/d for ==), so
+ * each constraint takes one of the two operators bracketing the target
+ * tightness, chosen so that the expected tightness matches it. The same
+ * seed and parameters always give the same instance.
+ */
+public class InstanceGenerator {
+
+    /** First day of every generated range */
+    public static final LocalDate RANGE_START = LocalDate.of(2019, 1, 1);
+
+    /**
+     * @param seed Random seed
+     * @param nMeetings Number of meetings
+     * @param domainSize Number of days in the range, at least 1
+     * @param density Fraction of the nMeetings * (nMeetings - 1) / 2 pairs
+     *        given a constraint, in [0, 1]
+     * @param tightness Target fraction of date pairs each constraint rules
+     *        out, in [0, 1]; clamped to the tightness operators can reach
+     * @return The generated problem, with an id describing its parameters
+     */
+    public static Problem generate (long seed, int nMeetings, int domainSize, double density, double tightness) {
+        if (nMeetings < 0 || domainSize < 1 || !(density >= 0 && density <= 1) || !(tightness >= 0 && tightness <= 1)) {
+            throw new IllegalArgumentException("Invalid instance parameters");
+        }
+        Random random = new Random(seed);
+        long pairs = (long) nMeetings * (nMeetings - 1) / 2;
+        long count = Math.round(density * pairs);
+
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (long pair : samplePairs(random, nMeetings, pairs, count)) {
+            int i = (int) (pair >>> 32), j = (int) pair;
+            String op = operator(random, domainSize, tightness);
+            // Orient the ordering operators either way
+            constraints.add(random.nextBoolean() ? new BinaryDateConstraint(i, op, j) : new BinaryDateConstraint(j, op, i));
+        }
+
+        String id = "rand-" + seed + "-" + nMeetings + "-" + domainSize + "-" + density + "-" + tightness;
+        return new Problem(id, nMeetings, RANGE_START, RANGE_START.plusDays(domainSize - 1), constraints);
+    }
+
+    /**
+     * @param op A binary operator
+     * @param domainSize Number of days d in both domains
+     * @return The fraction of the d * d date pairs the operator rules out
+     */
+    public static double tightness (String op, int domainSize) {
+        double d = domainSize;
+        switch (Operator.of(op)) {
+            case EQ: return 1 - 1 / d;
+            case NE: return 1 / d;
+            case LT:
+            case GT: return (d + 1) / (2 * d);
+            default: return (d - 1) / (2 * d);
+        }
+    }
+
+
+    // Helper Methods / Classes
+
+    private static String operator (Random random, int domainSize, double target) {
+        // Below 3 days the operators are not ordered the same way
+        String[] byTightness = {"!=", "<=", "<", "=="};
+        Arrays.sort(byTightness, Comparator.comparingDouble(op -> tightness(op, domainSize)));
+        int below = 0;
+        for (int k = 1; k < byTightness.length; k++) {
+            if (tightness(byTightness[k], domainSize) <= target) {
+                below = k;
+            }
+        }
+        int above = Math.min(below + 1, byTightness.length - 1);
+        double low = tightness(byTightness[below], domainSize), high = tightness(byTightness[above], domainSize);
+        boolean takeAbove = high > low && random.nextDouble() < (target - low) / (high - low);
+        String op = byTightness[takeAbove ? above : below];
+        if (random.nextBoolean()) {
+            op = op.equals("<=") ? ">=" : op.equals("<") ? ">" : op;
+        }
+        return op;
+    }
+
+    /**
+     * Picks count distinct pairs i &lt; j, each encoded as (i &lt;&lt; 32) | j:
+     * by rejection when sparse, or by a partial shuffle of every pair when
+     * more than half of them are wanted.
+     */
+    private static long[] samplePairs (Random random, int n, long pairs, long count) {
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many constraints");
+        }
+        long[] result = new long[(int) count];
+        if (2 * count <= pairs) {
+            Set<Long> seen = new HashSet<>();
+            int k = 0;
+            while (k < count) {
+                int i = random.nextInt(n), j = random.nextInt(n);
+                if (i == j) { continue; }
+                long pair = ((long) Math.min(i, j) << 32) | Math.max(i, j);
+                if (seen.add(pair)) {
+                    result[k++] = pair;
+                }
+            }
+            return result;
+        }
+
+        long[] all = new long[(int) pairs];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                all[k++] = ((long) i << 32) | j;
+            }
+        }
+        for (int m = 0; m < count; m++) {
+            int swap = m + random.nextInt(all.length - m);
+            long pair = all[swap];
+            all[swap] = all[m];
+            all[m] = pair;
+            result[m] = pair;
+        }
+        return result;
+    }
+
+}
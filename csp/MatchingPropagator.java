@@ -0,0 +1,270 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import csp.CSP.DateVar;
+
+/**
+ * MatchingPropagator: Regin's filtering for "at most capacity meetings
+ * per day" over a set of meetings, which with capacity 1 is alldifferent.
+ *
+ * The meetings and days form a bipartite flow network (source -> meeting
+ * -> day -> sink, each day holding up to capacity meetings). A maximum
+ * flow that places every meeting proves the constraint satisfiable; a
+ * date that the flow does not use is still supported exactly when its
+ * meeting and day lie in the same strongly connected component of the
+ * residual graph, since the flow can then be re-routed through it.
+ */
+class MatchingPropagator {
+
+    /**
+     * @param vars Meetings in scope
+     * @param assignment Dates indexed by meeting, null where unassigned
+     * @param capacity Maximum meetings per day
+     * @return false if some day already holds more than capacity of vars
+     */
+    static boolean withinCapacity (int[] vars, List<LocalDate> assignment, int capacity) {
+        Map<LocalDate, Integer> load = new HashMap<>();
+        for (int var : vars) {
+            LocalDate date = assignment.get(var);
+            if (date != null && load.merge(date, 1, Integer::sum) > capacity) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param vars Meetings in scope
+     * @param var Meeting in scope that was just assigned
+     * @param assignment Dates indexed by meeting, null where unassigned
+     * @param capacity Maximum meetings per day
+     * @return The capacity lowest-indexed other meetings on var's day if
+     *         that day is over capacity, otherwise null
+     */
+    static int[] conflictSet (int[] vars, int var, List<LocalDate> assignment, int capacity) {
+        LocalDate date = assignment.get(var);
+        int[] sameDay = Arrays.stream(vars)
+            .filter(other -> other != var && date.equals(assignment.get(other)))
+            .sorted()
+            .toArray();
+        return (sameDay.length < capacity) ? null : Arrays.copyOf(sameDay, capacity);
+    }
+
+    /**
+     * Removes every date of every meeting in vars that no assignment
+     * respecting the capacity uses.
+     * @return false if no such assignment exists at all
+     */
+    static boolean filter (int[] vars, List<DateVar> domains, int capacity) {
+        int n = vars.length;
+
+        // Index the days appearing in any domain of the scope
+        Map<LocalDate, Integer> dayIndex = new HashMap<>();
+        List<LocalDate> days = new ArrayList<>();
+        int[][] adjacent = new int[n][];
+        for (int i = 0; i < n; i++) {
+            HashSet<LocalDate> domain = domains.get(vars[i]).domain;
+            if (domain.isEmpty()) {
+                return false;
+            }
+            adjacent[i] = new int[domain.size()];
+            int k = 0;
+            for (LocalDate date : domain) {
+                Integer index = dayIndex.get(date);
+                if (index == null) {
+                    index = days.size();
+                    dayIndex.put(date, index);
+                    days.add(date);
+                }
+                adjacent[i][k++] = index;
+            }
+        }
+        int nDays = days.size();
+        if (n > (long) nDays * capacity) {
+            return false;
+        }
+
+        // Maximum flow by augmenting paths from each meeting in turn
+        int[] matchOf = new int[n];
+        Arrays.fill(matchOf, -1);
+        int[] load = new int[nDays];
+        List<List<Integer>> holders = new ArrayList<>(nDays);
+        for (int d = 0; d < nDays; d++) {
+            holders.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < n; i++) {
+            if (!augment(i, adjacent, matchOf, load, holders, capacity, new boolean[nDays])) {
+                return false;
+            }
+        }
+
+        // Residual graph: meeting i -> day d for unused edges, day -> its
+        // holders, day -> sink if not full, sink -> day if non-empty
+        int sink = n + nDays;
+        int[] component = stronglyConnectedComponents(n + nDays + 1, node -> {
+            List<Integer> out = new ArrayList<>();
+            if (node < n) {
+                for (int d : adjacent[node]) {
+                    if (d != matchOf[node]) { out.add(n + d); }
+                }
+            } else if (node < sink) {
+                int d = node - n;
+                out.addAll(holders.get(d));
+                if (load[d] < capacity) { out.add(sink); }
+            } else {
+                for (int d = 0; d < nDays; d++) {
+                    if (load[d] > 0) { out.add(n + d); }
+                }
+            }
+            return out;
+        });
+
+        for (int i = 0; i < n; i++) {
+            HashSet<LocalDate> domain = null;
+            for (int d : adjacent[i]) {
+                if (d != matchOf[i] && component[i] != component[n + d]) {
+                    if (domain == null) {
+                        domain = CSP.copyDomain(domains.get(vars[i]).domain);
+                    }
+                    domain.remove(days.get(d));
+                }
+            }
+            if (domain != null) {
+                domains.set(vars[i], new DateVar(domain));
+            }
+        }
+        return true;
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * Breadth-first augmenting path with day capacities: place meeting i on
+     * a day with room, or on a full day after shifting one of its holders
+     * along a chain of days that ends in one with room.
+     */
+    private static boolean augment (int i, int[][] adjacent, int[] matchOf, int[] load,
+                                    List<List<Integer>> holders, int capacity, boolean[] visited) {
+        int n = adjacent.length;
+        int[] reachedFrom = new int[visited.length];
+        boolean[] queued = new boolean[n];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(i);
+        queued[i] = true;
+
+        while (!queue.isEmpty()) {
+            int meeting = queue.poll();
+            for (int d : adjacent[meeting]) {
+                if (visited[d]) { continue; }
+                visited[d] = true;
+                reachedFrom[d] = meeting;
+                if (load[d] < capacity) {
+                    // Shift each meeting on the path onto the day after it
+                    while (true) {
+                        int mover = reachedFrom[d], previous = matchOf[mover];
+                        place(mover, d, matchOf, load, holders);
+                        if (mover == i) {
+                            return true;
+                        }
+                        d = previous;
+                    }
+                }
+                for (int holder : holders.get(d)) {
+                    if (!queued[holder]) {
+                        queued[holder] = true;
+                        queue.add(holder);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void place (int i, int d, int[] matchOf, int[] load, List<List<Integer>> holders) {
+        if (matchOf[i] >= 0) {
+            load[matchOf[i]]--;
+            holders.get(matchOf[i]).remove(Integer.valueOf(i));
+        }
+        matchOf[i] = d;
+        load[d]++;
+        holders.get(d).add(i);
+    }
+
+    interface Successors {
+        List<Integer> of (int node);
+    }
+
+    /**
+     * Iterative Tarjan, since the graph can be far deeper than the stack.
+     * @return Component id of each node
+     */
+    static int[] stronglyConnectedComponents (int nNodes, Successors successors) {
+        int[] index = new int[nNodes], low = new int[nNodes], component = new int[nNodes];
+        Arrays.fill(index, -1);
+        boolean[] onStack = new boolean[nNodes];
+        int[] stack = new int[nNodes];
+        int stackSize = 0, counter = 0, nComponents = 0;
+
+        int[] callNode = new int[nNodes], callEdge = new int[nNodes];
+        List<List<Integer>> edges = new ArrayList<>(nNodes);
+        for (int v = 0; v < nNodes; v++) {
+            edges.add(null);
+        }
+
+        for (int root = 0; root < nNodes; root++) {
+            if (index[root] >= 0) { continue; }
+            int depth = 0;
+            callNode[0] = root;
+            callEdge[0] = 0;
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            edges.set(root, successors.of(root));
+
+            while (depth >= 0) {
+                int v = callNode[depth];
+                List<Integer> out = edges.get(v);
+                if (callEdge[depth] < out.size()) {
+                    int w = out.get(callEdge[depth]++);
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        edges.set(w, successors.of(w));
+                        callNode[++depth] = w;
+                        callEdge[depth] = 0;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        component[w] = nComponents;
+                    } while (w != v);
+                    nComponents++;
+                }
+                edges.set(v, null);
+                if (--depth >= 0) {
+                    int parent = callNode[depth];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        return component;
+    }
+
+}
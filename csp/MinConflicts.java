@@ -0,0 +1,381 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import csp.CSP.DateVar;
+
+/**
+ * MinConflicts: local search solver for calendars too large for the
+ * systematic search in CSP. Starting from a full (possibly seeded)
+ * assignment, it repeatedly picks a meeting involved in a violated
+ * constraint and moves it to the date that violates the fewest of its
+ * constraints. A short tabu list keeps a meeting from immediately
+ * returning to the date it just left, and the search restarts from a
+ * fresh random assignment when it stops improving.
+ *
+ * Conflict counts are kept per meeting and updated incrementally on each
+ * move, so an iteration only touches the constraints of the moved meeting.
+ * Local search cannot prove infeasibility: when the budget runs out
+ * without a solution, the best assignment seen is still available from
+ * getBestAssignment as a "good-enough" schedule.
+ *
+ * An AllDifferentConstraint is searched as its pairwise "!=" constraints;
+ * other global constraints are not supported.
+ */
+public class MinConflicts {
+
+    private final int nVars;
+    private final int[][] values;
+    private final int[] left, right, literal;
+    private final Operator[] op;
+    private final int[][] incident;
+    private final Random random;
+    private final int tabuTenure;
+    private final int restartAfter;
+    private final boolean infeasible;
+
+    private int[] current, conflicts, best;
+    private boolean[] violated;
+    private int[] conflicted, conflictedPos;
+    private int nConflicted, totalConflicts, bestConflicts;
+    private int[] tabuValue;
+    private long[] tabuUntil;
+    private long iterations;
+    private int restarts;
+
+    /**
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param seed Seed for the random choices, so runs are reproducible
+     * @throws IllegalArgumentException if a global constraint other than
+     *         AllDifferentConstraint is given
+     */
+    public MinConflicts (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints, long seed) {
+        nVars = nMeetings;
+        random = new Random(seed);
+        tabuTenure = Math.max(2, Math.min(10, nMeetings / 10));
+        restartAfter = Math.max(1000, 20 * nMeetings);
+
+        List<DateVar> domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, constraints);
+        boolean empty = (domains == null);
+        values = new int[nMeetings][];
+        for (int i = 0; i < nMeetings && !empty; i++) {
+            values[i] = domains.get(i).domain.stream().mapToInt(d -> (int) d.toEpochDay()).sorted().toArray();
+            empty = values[i].length == 0;
+        }
+        infeasible = empty;
+
+        List<DateConstraint> flat = flatten(constraints);
+        int n = flat.size();
+        left = new int[n];
+        right = new int[n];
+        op = new Operator[n];
+        literal = new int[n];
+        int[] degree = new int[nMeetings];
+        int c = 0;
+        for (DateConstraint constraint : flat) {
+            left[c] = constraint.L_VAL;
+            op[c] = constraint.OPERATOR;
+            if (constraint.arity() == 1) {
+                right[c] = -1;
+                literal[c] = ((UnaryDateConstraint) constraint).R_DAY;
+            } else {
+                right[c] = ((BinaryDateConstraint) constraint).R_VAL;
+                degree[right[c]]++;
+            }
+            degree[left[c]]++;
+            c++;
+        }
+        incident = new int[nMeetings][];
+        for (int i = 0; i < nMeetings; i++) {
+            incident[i] = new int[degree[i]];
+            degree[i] = 0;
+        }
+        for (c = 0; c < n; c++) {
+            incident[left[c]][degree[left[c]]++] = c;
+            if (right[c] >= 0) {
+                incident[right[c]][degree[right[c]]++] = c;
+            }
+        }
+    }
+
+    /**
+     * Runs min-conflicts from a random assignment.
+     * @param maxIterations Maximum number of moves across all restarts
+     * @param timeLimitMillis Wall-clock budget in milliseconds, or 0 for none
+     * @return A satisfying list of dates, or null if none was found in budget
+     */
+    public List<LocalDate> solve (long maxIterations, long timeLimitMillis) {
+        return solve(null, maxIterations, timeLimitMillis);
+    }
+
+    /**
+     * Runs min-conflicts starting from the given partial assignment: seeded
+     * dates are kept as the starting point (but may still be moved), and
+     * unseeded (null) meetings start at their least-conflicting date.
+     * @param seed Starting dates indexed by meeting, null entries unseeded; may be null
+     * @param maxIterations Maximum number of moves across all restarts
+     * @param timeLimitMillis Wall-clock budget in milliseconds, or 0 for none
+     * @return A satisfying list of dates, or null if none was found in budget
+     */
+    public List<LocalDate> solve (List<LocalDate> seed, long maxIterations, long timeLimitMillis) {
+        iterations = 0;
+        restarts = 0;
+        best = null;
+        bestConflicts = Integer.MAX_VALUE;
+        if (infeasible) {
+            return null;
+        }
+
+        SolverLimits.Deadline deadline = new SolverLimits.Deadline(timeLimitMillis);
+        initialize(seed);
+        long lastImprovement = 0;
+        while (totalConflicts > 0 && iterations < maxIterations) {
+            if ((iterations & 0xff) == 0 && deadline.passed()) {
+                break;
+            }
+            if (iterations - lastImprovement > restartAfter) {
+                restarts++;
+                initialize(null);
+                lastImprovement = iterations;
+            }
+
+            int var = conflicted[random.nextInt(nConflicted)];
+            move(var, chooseValue(var));
+            iterations++;
+            if (totalConflicts < bestConflicts) {
+                recordBest();
+                lastImprovement = iterations;
+            }
+        }
+
+        return (bestConflicts == 0) ? getBestAssignment() : null;
+    }
+
+    /**
+     * @return The assignment with the fewest violated constraints seen by the
+     *         last solve, or null if the domains were already empty
+     */
+    public List<LocalDate> getBestAssignment () {
+        if (best == null) {
+            return null;
+        }
+        List<LocalDate> result = new ArrayList<>(nVars);
+        for (int day : best) {
+            result.add(LocalDate.ofEpochDay(day));
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of constraints violated by getBestAssignment
+     */
+    public int getBestConflicts () {
+        return bestConflicts;
+    }
+
+    /**
+     * @return Number of moves made by the last solve
+     */
+    public long getIterations () {
+        return iterations;
+    }
+
+    /**
+     * @return Number of random restarts made by the last solve
+     */
+    public int getRestarts () {
+        return restarts;
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * @return The constraints with each AllDifferentConstraint expanded into
+     *         "!=" between every pair of its meetings
+     */
+    private static List<DateConstraint> flatten (Set<DateConstraint> constraints) {
+        List<DateConstraint> flat = new ArrayList<>(constraints.size());
+        for (DateConstraint constraint : constraints) {
+            if (constraint instanceof AllDifferentConstraint) {
+                int[] vars = ((AllDifferentConstraint) constraint).VARS;
+                for (int i = 0; i < vars.length; i++) {
+                    for (int j = i + 1; j < vars.length; j++) {
+                        flat.add(new BinaryDateConstraint(vars[i], "!=", vars[j]));
+                    }
+                }
+            } else if (constraint instanceof GlobalDateConstraint) {
+                throw new IllegalArgumentException("Unsupported constraint for local search: " + constraint);
+            } else {
+                flat.add(constraint);
+            }
+        }
+        return flat;
+    }
+
+    /**
+     * Builds a full assignment (from the seed where given, otherwise greedily
+     * with random tie-breaks) and the conflict bookkeeping for it.
+     */
+    private void initialize (List<LocalDate> seed) {
+        current = new int[nVars];
+        conflicts = new int[nVars];
+        violated = new boolean[left.length];
+        conflicted = new int[nVars];
+        conflictedPos = new int[nVars];
+        Arrays.fill(conflictedPos, -1);
+        nConflicted = 0;
+        totalConflicts = 0;
+        tabuValue = new int[nVars];
+        tabuUntil = new long[nVars];
+
+        boolean[] assigned = new boolean[nVars];
+        if (seed != null) {
+            for (int i = 0; i < nVars; i++) {
+                LocalDate date = seed.get(i);
+                if (date != null && Arrays.binarySearch(values[i], (int) date.toEpochDay()) >= 0) {
+                    current[i] = (int) date.toEpochDay();
+                    assigned[i] = true;
+                }
+            }
+        }
+        for (int i = 0; i < nVars; i++) {
+            if (!assigned[i]) {
+                current[i] = (seed != null) ? greedyValue(i, assigned) : values[i][random.nextInt(values[i].length)];
+                assigned[i] = true;
+            }
+        }
+
+        for (int c = 0; c < left.length; c++) {
+            if (!satisfied(c)) {
+                setViolated(c, true);
+            }
+        }
+        if (totalConflicts < bestConflicts) {
+            recordBest();
+        }
+    }
+
+    /**
+     * @return The date of var violating the fewest constraints with the
+     *         meetings assigned so far
+     */
+    private int greedyValue (int var, boolean[] assigned) {
+        int bestValue = values[var][0], bestCount = Integer.MAX_VALUE, ties = 0;
+        for (int value : values[var]) {
+            current[var] = value;
+            int count = 0;
+            for (int c : incident[var]) {
+                int other = (left[c] == var) ? right[c] : left[c];
+                if ((other < 0 || assigned[other]) && !satisfied(c)) {
+                    count++;
+                }
+            }
+            if (count < bestCount) {
+                bestValue = value;
+                bestCount = count;
+                ties = 1;
+            } else if (count == bestCount && random.nextInt(++ties) == 0) {
+                bestValue = value;
+            }
+        }
+        return bestValue;
+    }
+
+    /**
+     * @return The least-conflicting non-tabu date for var (a tabu date is
+     *         allowed only if it beats the best total seen so far)
+     */
+    private int chooseValue (int var) {
+        int original = current[var];
+        int bestValue = original, bestCount = Integer.MAX_VALUE, ties = 0;
+        for (int value : values[var]) {
+            if (value == original && values[var].length > 1) {
+                continue;
+            }
+            current[var] = value;
+            int count = 0;
+            for (int c : incident[var]) {
+                if (!satisfied(c)) {
+                    count++;
+                }
+            }
+            boolean tabu = value == tabuValue[var] && iterations < tabuUntil[var]
+                           && totalConflicts - conflicts[var] + count >= bestConflicts;
+            if (tabu) {
+                continue;
+            }
+            if (count < bestCount) {
+                bestValue = value;
+                bestCount = count;
+                ties = 1;
+            } else if (count == bestCount && random.nextInt(++ties) == 0) {
+                bestValue = value;
+            }
+        }
+        current[var] = original;
+        return bestValue;
+    }
+
+    private void move (int var, int value) {
+        if (value == current[var]) {
+            return;
+        }
+        tabuValue[var] = current[var];
+        tabuUntil[var] = iterations + tabuTenure;
+        current[var] = value;
+        for (int c : incident[var]) {
+            boolean nowViolated = !satisfied(c);
+            if (nowViolated != violated[c]) {
+                setViolated(c, nowViolated);
+            }
+        }
+    }
+
+    private void setViolated (int c, boolean isViolated) {
+        violated[c] = isViolated;
+        int delta = isViolated ? 1 : -1;
+        totalConflicts += delta;
+        adjustConflicts(left[c], delta);
+        if (right[c] >= 0) {
+            adjustConflicts(right[c], delta);
+        }
+    }
+
+    /**
+     * Updates var's conflict count, keeping the array of conflicted
+     * meetings (for O(1) random selection) in sync.
+     */
+    private void adjustConflicts (int var, int delta) {
+        conflicts[var] += delta;
+        if (conflicts[var] > 0 && conflictedPos[var] < 0) {
+            conflictedPos[var] = nConflicted;
+            conflicted[nConflicted++] = var;
+        } else if (conflicts[var] == 0 && conflictedPos[var] >= 0) {
+            int last = conflicted[--nConflicted];
+            conflicted[conflictedPos[var]] = last;
+            conflictedPos[last] = conflictedPos[var];
+            conflictedPos[var] = -1;
+        }
+    }
+
+    private void recordBest () {
+        bestConflicts = totalConflicts;
+        best = current.clone();
+    }
+
+    private boolean satisfied (int c) {
+        int l = current[left[c]],
+            r = (right[c] < 0) ? literal[c] : current[right[c]];
+        return op[c].test(l, r);
+    }
+
+}
@@ -0,0 +1,72 @@
+package csp;
+
+/**
+ * Operator: the comparison of a DateConstraint, compiled once from its
+ * String OP when the constraint is constructed. Dates are compared as
+ * epoch-day ints, so each check in the solver's inner loops is a single
+ * monomorphic int compare instead of a String switch over LocalDates.
+ */
+public enum Operator {
+    
+    EQ("=="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+    
+    public final String SYMBOL;
+    
+    Operator (String symbol) {
+        SYMBOL = symbol;
+    }
+    
+    /**
+     * Compiles the String form of an operator.
+     * @param symbol One of ==, !=, <, <=, >, >=
+     * @return The matching Operator
+     */
+    public static Operator of (String symbol) {
+        for (Operator operator : values()) {
+            if (operator.SYMBOL.equals(symbol)) {
+                return operator;
+            }
+        }
+        throw new IllegalArgumentException("Invalid constraint operator");
+    }
+    
+    /**
+     * @param left Epoch day of the left operand
+     * @param right Epoch day of the right operand
+     * @return Whether left OP right holds
+     */
+    public boolean test (int left, int right) {
+        switch (this) {
+            case EQ: return left == right;
+            case NE: return left != right;
+            case LT: return left < right;
+            case LE: return left <= right;
+            case GT: return left > right;
+            default: return left >= right;
+        }
+    }
+    
+    /**
+     * Ordering operators depend only on the bounds of each domain and can
+     * be propagated as precedences.
+     * @return true for <, <=, > and >=
+     */
+    public boolean isOrdering () {
+        return this != EQ && this != NE;
+    }
+    
+    /**
+     * @return The operator with its operands swapped, i.e. the OP' with
+     *         (a OP b) == (b OP' a)
+     */
+    public Operator flip () {
+        switch (this) {
+            case LT: return GT;
+            case LE: return GE;
+            case GT: return LT;
+            case GE: return LE;
+            default: return this;
+        }
+    }
+    
+}
@@ -0,0 +1,213 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import csp.CSP.DateVar;
+
+/**
+ * Optimizer: branch-and-bound on top of the CSP backtracking search that
+ * looks for the best feasible calendar under an Objective rather than
+ * the first one. Every node computes a lower bound on the objective from
+ * the dates assigned so far and the domain minimums / maximums of the
+ * meetings still unassigned, and subtrees that cannot beat the incumbent
+ * are cut. The incumbent tightens each time a better calendar is found,
+ * and the search stops early once it meets the root bound.
+ *
+ * A time limit makes the search anytime: when it expires the best
+ * calendar found so far is returned and isOptimal reports false.
+ */
+public class Optimizer {
+
+    /**
+     * What the optimizer minimizes.
+     */
+    public enum Objective {
+        /** The date of the last meeting */
+        LATEST_DATE,
+        /** Days between the first and last meeting */
+        SPREAD
+    }
+
+    private final int nVars;
+    private final Objective objective;
+    private final int[][] values;
+    private final int[] lo, hi, order;
+    private final List<List<DateConstraint>> incident;
+    private final boolean infeasible;
+
+    private List<LocalDate> assignment;
+    private int[] days;
+    private boolean[] assigned;
+    private int[] best;
+    private long bestCost, rootBound, nodes;
+    private SolverLimits.Deadline deadline;
+    private boolean timedOut;
+
+    /**
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param objective What to minimize
+     */
+    public Optimizer (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints, Objective objective) {
+        nVars = nMeetings;
+        this.objective = objective;
+        incident = CSP.indexConstraints(nMeetings, constraints);
+
+        List<DateVar> domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, constraints);
+        boolean empty = (domains == null);
+        values = new int[nMeetings][];
+        lo = new int[nMeetings];
+        hi = new int[nMeetings];
+        for (int i = 0; i < nMeetings && !empty; i++) {
+            values[i] = CSP.toSortedEpochDays(domains.get(i).domain);
+            empty = values[i].length == 0;
+            if (!empty) {
+                lo[i] = values[i][0];
+                hi[i] = values[i][values[i].length - 1];
+            }
+        }
+        infeasible = empty;
+
+        Integer[] bySize = new Integer[nMeetings];
+        for (int i = 0; i < nMeetings; i++) {
+            bySize[i] = i;
+        }
+        if (!infeasible) {
+            Arrays.sort(bySize, (a, b) -> Integer.compare(values[a].length, values[b].length));
+        }
+        order = new int[nMeetings];
+        for (int i = 0; i < nMeetings; i++) {
+            order[i] = bySize[i];
+        }
+    }
+
+    /**
+     * Runs branch-and-bound until the optimum is proven or time runs out.
+     * @param timeLimitMillis Wall-clock budget in milliseconds, or 0 for none
+     * @return The best calendar found, or null if none was found (either
+     *         infeasible, or no solution within the time limit)
+     */
+    public List<LocalDate> solve (long timeLimitMillis) {
+        best = null;
+        bestCost = Long.MAX_VALUE;
+        nodes = 0;
+        timedOut = false;
+        if (infeasible) {
+            return null;
+        }
+        if (nVars == 0) {
+            bestCost = 0;
+            return new ArrayList<>();
+        }
+
+        deadline = new SolverLimits.Deadline(timeLimitMillis);
+        assignment = new ArrayList<>(nVars);
+        CSP.initializeAssignment(assignment, nVars);
+        days = new int[nVars];
+        assigned = new boolean[nVars];
+        rootBound = lowerBound();
+        branch(0);
+
+        if (best == null) {
+            return null;
+        }
+        List<LocalDate> result = new ArrayList<>(nVars);
+        for (int day : best) {
+            result.add(LocalDate.ofEpochDay(day));
+        }
+        return result;
+    }
+
+    /**
+     * @return Objective value of the best calendar found: an epoch day for
+     *         LATEST_DATE, a number of days for SPREAD; Long.MAX_VALUE if none
+     */
+    public long getBestCost () {
+        return bestCost;
+    }
+
+    /**
+     * @return true if the last solve finished its search, so the calendar it
+     *         returned is optimal (or null really means infeasible)
+     */
+    public boolean isOptimal () {
+        return !timedOut;
+    }
+
+    /**
+     * @return Number of value assignments tried by the last solve
+     */
+    public long getNodes () {
+        return nodes;
+    }
+
+
+    // Helper Methods / Classes
+
+    private void branch (int depth) {
+        if (depth == nVars) {
+            long cost = cost();
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = days.clone();
+            }
+            return;
+        }
+
+        int var = order[depth];
+        for (int day : values[var]) {
+            if (bestCost <= rootBound) {
+                break;
+            }
+            if ((++nodes & 0x3ff) == 0 && deadline.passed()) {
+                timedOut = true;
+            }
+            if (timedOut) {
+                break;
+            }
+            // Values are ascending, so past the incumbent only worse dates remain
+            if (objective == Objective.LATEST_DATE && day >= bestCost) {
+                break;
+            }
+
+            assignment.set(var, LocalDate.ofEpochDay(day));
+            days[var] = day;
+            assigned[var] = true;
+            if (CSP.checkVariableConsistency(var, assignment, incident) && lowerBound() < bestCost) {
+                branch(depth + 1);
+            }
+            assigned[var] = false;
+        }
+        assignment.set(var, null);
+    }
+
+    /**
+     * Lower bound on the objective of any completion of the current
+     * assignment, taking each unassigned meeting at its domain minimum
+     * (for the latest date) or at its most favourable bound (for spread).
+     */
+    private long lowerBound () {
+        long latest = Long.MIN_VALUE, earliest = Long.MAX_VALUE;
+        for (int i = 0; i < nVars; i++) {
+            latest = Math.max(latest, assigned[i] ? days[i] : lo[i]);
+            earliest = Math.min(earliest, assigned[i] ? days[i] : hi[i]);
+        }
+        return (objective == Objective.LATEST_DATE) ? latest : Math.max(0, latest - earliest);
+    }
+
+    private long cost () {
+        long latest = Long.MIN_VALUE, earliest = Long.MAX_VALUE;
+        for (int day : days) {
+            latest = Math.max(latest, day);
+            earliest = Math.min(earliest, day);
+        }
+        return (objective == Objective.LATEST_DATE) ? latest : latest - earliest;
+    }
+
+}
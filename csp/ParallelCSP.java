@@ -0,0 +1,299 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import csp.CSP.DateVar;
+
+/**
+ * ParallelCSP: multi-core variants of CSP.solve. Both modes share the
+ * same consistency preprocessing as the sequential solver and differ
+ * only in how the backtracking search is spread over a ForkJoinPool:
+ * <ul>
+ *   <li>solvePortfolio races differently-ordered searches over the whole
+ *       problem and keeps whichever finishes first</li>
+ *   <li>solveSplit divides the domain of the first branching variable
+ *       into subtrees that idle workers steal from each other</li>
+ * </ul>
+ * Losing searches are cancelled cooperatively through a shared flag that
+ * every worker checks once per node.
+ */
+public class ParallelCSP {
+
+    /**
+     * Portfolio search: runs one differently-configured backtracking search
+     * per worker and returns the answer of the first one to finish. Any
+     * worker that completes without being cancelled has either found a
+     * solution or exhausted the space, so its answer is decisive either way.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param nWorkers Number of searches (and pool threads) to run
+     * @return A satisfying list of dates, or null if no solution exists
+     */
+    public static List<LocalDate> solvePortfolio (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints, int nWorkers) {
+        if (nWorkers < 1) {
+            throw new IllegalArgumentException("Invalid number of workers");
+        }
+        List<DateVar> domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, constraints);
+        if (domains == null) {
+            return null;
+        }
+
+        List<List<DateConstraint>> incident = CSP.indexConstraints(nMeetings, constraints);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        ForkJoinPool pool = new ForkJoinPool(nWorkers);
+        try {
+            ExecutorCompletionService<List<LocalDate>> completion = new ExecutorCompletionService<>(pool);
+            for (int i = 0; i < nWorkers; i++) {
+                Strategy strategy = Strategy.forWorker(i);
+                Worker worker = new Worker(orderValues(domains, strategy), incident, strategy, stop);
+                completion.submit(worker::search);
+            }
+            List<LocalDate> result = completion.take().get();
+            stop.set(true);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            stop.set(true);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Subtree-splitting search: picks the first branching variable (the
+     * unassigned one with the smallest domain above one value) and solves
+     * each of its values as an independent subtree, recursively halving the
+     * value range so the ForkJoinPool can balance subtrees by work stealing.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param nWorkers Parallelism of the pool
+     * @return A satisfying list of dates, or null if no solution exists
+     */
+    public static List<LocalDate> solveSplit (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints, int nWorkers) {
+        if (nWorkers < 1) {
+            throw new IllegalArgumentException("Invalid number of workers");
+        }
+        List<DateVar> domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, constraints);
+        if (domains == null) {
+            return null;
+        }
+
+        if (nMeetings == 0) {
+            return new ArrayList<LocalDate>();
+        }
+
+        List<List<DateConstraint>> incident = CSP.indexConstraints(nMeetings, constraints);
+        int splitVar = 0;
+        for (int i = 0; i < nMeetings; i++) {
+            int size = domains.get(i).domain.size();
+            if (size > 1 && (domains.get(splitVar).domain.size() <= 1 || size < domains.get(splitVar).domain.size())) {
+                splitVar = i;
+            }
+        }
+
+        // Ordered once and shared read-only by every subtree's search
+        List<List<LocalDate>> values = orderValues(domains, Strategy.forWorker(1));
+        List<LocalDate> splitValues = values.get(splitVar);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        ForkJoinPool pool = new ForkJoinPool(nWorkers);
+        try {
+            return pool.invoke(new Subtree(values, incident, splitVar, splitValues, 0, splitValues.size(), stop));
+        } finally {
+            stop.set(true);
+            pool.shutdown();
+        }
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * @return Each variable's domain as a list, in the value order of strategy
+     */
+    static List<List<LocalDate>> orderValues (List<DateVar> domains, Strategy strategy) {
+        List<List<LocalDate>> values = new ArrayList<>(domains.size());
+        for (DateVar var : domains) {
+            List<LocalDate> ordered = new ArrayList<>(var.domain);
+            Collections.sort(ordered);
+            if (strategy.descending) {
+                Collections.reverse(ordered);
+            }
+            if (strategy.random != null) {
+                Collections.shuffle(ordered, strategy.random);
+            }
+            values.add(ordered);
+        }
+        return values;
+    }
+
+    /**
+     * Variable and value ordering used by one portfolio worker.
+     */
+    static class Strategy {
+        final boolean mrv;
+        final boolean descending;
+        final Random random;
+
+        Strategy (boolean mrv, boolean descending, Random random) {
+            this.mrv = mrv;
+            this.descending = descending;
+            this.random = random;
+        }
+
+        /**
+         * Worker 0 mirrors the sequential solver, the next few vary the
+         * variable and value ordering deterministically, and the rest
+         * shuffle values and break MRV ties with a per-worker seed.
+         * @param index Index of the worker in the portfolio
+         * @return The strategy that worker should search with
+         */
+        static Strategy forWorker (int index) {
+            switch (index) {
+                case 0:  return new Strategy(false, false, null);
+                case 1:  return new Strategy(true, false, null);
+                case 2:  return new Strategy(true, true, null);
+                case 3:  return new Strategy(false, true, null);
+                default: return new Strategy(true, false, new Random(index));
+            }
+        }
+    }
+
+    /**
+     * Sequential backtracking search over the preprocessed domains that
+     * checks only the constraints incident to each newly assigned variable
+     * and gives up as soon as the shared stop flag is raised. The value lists
+     * are only read, so workers may share them; the assignment is their own.
+     */
+    static class Worker {
+        final List<List<LocalDate>> values;
+        final List<List<DateConstraint>> incident;
+        final Strategy strategy;
+        final AtomicBoolean stop;
+        final List<LocalDate> assignment;
+
+        Worker (List<List<LocalDate>> values, List<List<DateConstraint>> incident, Strategy strategy, AtomicBoolean stop) {
+            this.values = values;
+            this.incident = incident;
+            this.strategy = strategy;
+            this.stop = stop;
+            assignment = new ArrayList<LocalDate>();
+            CSP.initializeAssignment(assignment, values.size());
+        }
+
+        /**
+         * @return A solution, or null if none exists below the current partial
+         *         assignment or the search was cancelled
+         */
+        List<LocalDate> search () {
+            if (stop.get()) {
+                return null;
+            }
+            int var = selectVar();
+            if (var < 0) {
+                return new ArrayList<LocalDate>(assignment);
+            }
+
+            for (LocalDate date : values.get(var)) {
+                assignment.set(var, date);
+                if (CSP.checkVariableConsistency(var, assignment, incident)) {
+                    List<LocalDate> result = search();
+                    if (result != null) {
+                        return result;
+                    }
+                }
+                if (stop.get()) {
+                    break;
+                }
+            }
+            assignment.set(var, null);
+            return null;
+        }
+
+        private int selectVar () {
+            int best = -1, ties = 0;
+            for (int i = 0; i < assignment.size(); i++) {
+                if (assignment.get(i) != null) { continue; }
+                if (!strategy.mrv) { return i; }
+                if (best < 0 || values.get(i).size() < values.get(best).size()) {
+                    best = i;
+                    ties = 1;
+                } else if (strategy.random != null && values.get(i).size() == values.get(best).size()
+                           && strategy.random.nextInt(++ties) == 0) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * The values [from, to) of the split variable; halves itself until a
+     * single value remains, which is then searched sequentially.
+     */
+    static class Subtree extends RecursiveTask<List<LocalDate>> {
+        private static final long serialVersionUID = 1L;
+
+        final List<List<LocalDate>> values;
+        final List<List<DateConstraint>> incident;
+        final int splitVar;
+        final List<LocalDate> splitValues;
+        final int from, to;
+        final AtomicBoolean stop;
+
+        Subtree (List<List<LocalDate>> values, List<List<DateConstraint>> incident, int splitVar,
+                 List<LocalDate> splitValues, int from, int to, AtomicBoolean stop) {
+            this.values = values;
+            this.incident = incident;
+            this.splitVar = splitVar;
+            this.splitValues = splitValues;
+            this.from = from;
+            this.to = to;
+            this.stop = stop;
+        }
+
+        @Override
+        protected List<LocalDate> compute () {
+            if (stop.get() || from >= to) {
+                return null;
+            }
+            if (to - from == 1) {
+                Worker worker = new Worker(values, incident, Strategy.forWorker(1), stop);
+                worker.assignment.set(splitVar, splitValues.get(from));
+                if (!CSP.checkVariableConsistency(splitVar, worker.assignment, incident)) {
+                    return null;
+                }
+                List<LocalDate> result = worker.search();
+                if (result != null) {
+                    stop.set(true);
+                }
+                return result;
+            }
+
+            int mid = (from + to) >>> 1;
+            Subtree left = new Subtree(values, incident, splitVar, splitValues, from, mid, stop),
+                    right = new Subtree(values, incident, splitVar, splitValues, mid, to, stop);
+            right.fork();
+            List<LocalDate> result = left.compute();
+            List<LocalDate> other = right.join();
+            return (result != null) ? result : other;
+        }
+    }
+
+}
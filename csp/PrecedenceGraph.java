@@ -0,0 +1,200 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import csp.CSP.DateVar;
+
+/**
+ * PrecedenceGraph: a view of the ordering constraints (<, <=, >, >=)
+ * as edges of the form a + gap <= b between meeting variables, so that
+ * long sequencing chains (A before B before C ...) can have their
+ * domain bounds propagated along the whole chain at once instead of
+ * one arc at a time.
+ */
+public class PrecedenceGraph {
+
+    private final int nVars;
+    private final List<List<Edge>> successors;
+    private final List<List<Edge>> predecessors;
+    
+    /**
+     * Constructs the precedence graph over nMeetings variables from the
+     * ordering BinaryDateConstraints in the given set; all other
+     * constraints are ignored.
+     * @param nMeetings The number of meeting variables
+     * @param constraints Constraints of the problem
+     */
+    PrecedenceGraph (int nMeetings, Set<DateConstraint> constraints) {
+        nVars = nMeetings;
+        successors = new ArrayList<>(nMeetings);
+        predecessors = new ArrayList<>(nMeetings);
+        for (int i = 0; i < nMeetings; i++) {
+            successors.add(new ArrayList<Edge>());
+            predecessors.add(new ArrayList<Edge>());
+        }
+        
+        for (DateConstraint constraint : constraints) {
+            if (!(constraint instanceof BinaryDateConstraint)) { continue; }
+            BinaryDateConstraint binary = (BinaryDateConstraint) constraint;
+            switch (binary.OPERATOR) {
+                case LT: addEdge(binary.L_VAL, binary.R_VAL, 1); break;
+                case LE: addEdge(binary.L_VAL, binary.R_VAL, 0); break;
+                case GT: addEdge(binary.R_VAL, binary.L_VAL, 1); break;
+                case GE: addEdge(binary.R_VAL, binary.L_VAL, 0); break;
+                default: break;
+            }
+        }
+    }
+    
+    /**
+     * Tightens every domain to the [earliest, latest] window implied by
+     * the precedence edges, i.e., the longest path of gaps into and out
+     * of each variable. Acyclic chains settle in a single pass over the
+     * topological order; cycles are handled by re-queuing variables until
+     * their bounds stop moving or cross.
+     * @param domains List containing the DateVars with each vars domains
+     * @return false if some domain was wiped out (no solution), true otherwise
+     */
+    public boolean propagate (List<DateVar> domains) {
+        long[] lo = new long[nVars],
+               hi = new long[nVars];
+        for (int i = 0; i < nVars; i++) {
+            if (domains.get(i).domain.isEmpty()) {
+                return false;
+            }
+            lo[i] = Long.MAX_VALUE;
+            hi[i] = Long.MIN_VALUE;
+            // Bounds of meetings with no ordering constraints never move
+            if (isolated(i)) { continue; }
+            for (LocalDate date : domains.get(i).domain) {
+                long day = date.toEpochDay();
+                lo[i] = Math.min(lo[i], day);
+                hi[i] = Math.max(hi[i], day);
+            }
+        }
+        
+        List<Integer> order = topologicalOrder();
+        if (!relax(order, lo, hi, true) || !relax(reversed(order), lo, hi, false)) {
+            return false;
+        }
+        
+        for (int i = 0; i < nVars; i++) {
+            if (isolated(i)) { continue; }
+            final long min = lo[i], max = hi[i];
+            HashSet<LocalDate> domain = CSP.retainDays(domains.get(i).domain, day -> day >= min && day <= max);
+            if (domain != domains.get(i).domain) {
+                domains.set(i, new DateVar(domain));
+            }
+        }
+        return true;
+    }
+    
+    
+    // Helper Methods / Classes
+    
+    private boolean isolated (int var) {
+        return successors.get(var).isEmpty() && predecessors.get(var).isEmpty();
+    }
+    
+    private void addEdge (int from, int to, int gap) {
+        Edge edge = new Edge(from, to, gap);
+        successors.get(from).add(edge);
+        predecessors.get(to).add(edge);
+    }
+    
+    /**
+     * Kahn's algorithm over the precedence edges; variables caught in a
+     * cycle are appended at the end in index order.
+     * @return Every variable index, topologically sorted where possible
+     */
+    private List<Integer> topologicalOrder () {
+        int[] inDegree = new int[nVars];
+        for (int i = 0; i < nVars; i++) {
+            inDegree[i] = predecessors.get(i).size();
+        }
+        
+        List<Integer> order = new ArrayList<>(nVars);
+        ArrayDeque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < nVars; i++) {
+            if (inDegree[i] == 0) { ready.add(i); }
+        }
+        while (!ready.isEmpty()) {
+            int current = ready.poll();
+            order.add(current);
+            for (Edge edge : successors.get(current)) {
+                if (--inDegree[edge.to] == 0) { ready.add(edge.to); }
+            }
+        }
+        
+        if (order.size() < nVars) {
+            for (int i = 0; i < nVars; i++) {
+                if (inDegree[i] > 0) { order.add(i); }
+            }
+        }
+        return order;
+    }
+    
+    private static List<Integer> reversed (List<Integer> order) {
+        List<Integer> result = new ArrayList<>(order);
+        Collections.reverse(result);
+        return result;
+    }
+    
+    /**
+     * Label-correcting relaxation of either the lower bounds (forward,
+     * along successors) or the upper bounds (backward, along predecessors),
+     * seeded in the given order so a DAG visits each edge once.
+     * @return false as soon as some lower bound passes its upper bound
+     */
+    private boolean relax (List<Integer> seed, long[] lo, long[] hi, boolean forward) {
+        ArrayDeque<Integer> queue = new ArrayDeque<>(seed);
+        boolean[] queued = new boolean[nVars];
+        Arrays.fill(queued, true);
+        
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            queued[current] = false;
+            for (Edge edge : forward ? successors.get(current) : predecessors.get(current)) {
+                int next = forward ? edge.to : edge.from;
+                boolean changed;
+                if (forward) {
+                    changed = lo[current] + edge.gap > lo[next];
+                    if (changed) { lo[next] = lo[current] + edge.gap; }
+                } else {
+                    changed = hi[current] - edge.gap < hi[next];
+                    if (changed) { hi[next] = hi[current] - edge.gap; }
+                }
+                if (lo[next] > hi[next]) {
+                    return false;
+                }
+                if (changed && !queued[next]) {
+                    queued[next] = true;
+                    queue.add(next);
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Edge from -> to meaning the date of "from" plus gap days must be
+     * on or before the date of "to".
+     */
+    private static class Edge {
+        final int from, to, gap;
+        
+        Edge (int from, int to, int gap) {
+            this.from = from;
+            this.to = to;
+            this.gap = gap;
+        }
+    }
+    
+}
@@ -0,0 +1,259 @@
+package csp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ProblemFormat: a compact, line-oriented text format for calendar
+ * problems, one problem per line so that files of any size can be
+ * streamed:
+ * <pre>
+ * # comment
+ * &lt;id&gt; &lt;nMeetings&gt; &lt;rangeStart&gt; &lt;rangeEnd&gt; [; &lt;constraint&gt;]*
+ * </pre>
+ * where each constraint is one of
+ * <pre>
+ * &lt;var&gt; &lt;op&gt; &lt;var&gt;          binary, e.g. 0 &lt; 1
+ * &lt;var&gt; &lt;op&gt; &lt;date&gt;         unary, e.g. 2 &lt;= 2019-01-03
+ * alldiff &lt;var&gt;...           AllDifferentConstraint
+ * cap &lt;capacity&gt; &lt;var&gt;...    DayCapacityConstraint
+ * </pre>
+ * Lines are scanned in place, straight into DateConstraints, with no
+ * intermediate token lists.
+ */
+public class ProblemFormat {
+
+    /**
+     * One parsed calendar problem, ready for CSP.solve.
+     */
+    public static class Problem {
+        public final String ID;
+        public final int N_MEETINGS;
+        public final LocalDate RANGE_START, RANGE_END;
+        public final Set<DateConstraint> CONSTRAINTS;
+
+        public Problem (String id, int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints) {
+            ID = id;
+            N_MEETINGS = nMeetings;
+            RANGE_START = rangeStart;
+            RANGE_END = rangeEnd;
+            CONSTRAINTS = constraints;
+        }
+    }
+
+    /**
+     * Reads the next problem, skipping blank and comment lines.
+     * @param in Source of problem lines
+     * @return The next problem, or null at the end of the input
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static Problem read (BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!isBlankOrComment(line)) {
+                return parse(line);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param line One problem in the format above
+     * @return The parsed problem
+     * @throws IllegalArgumentException if the line is malformed, or the
+     *         constraints are invalid for the problem
+     */
+    public static Problem parse (String line) {
+        Cursor cursor = new Cursor(line);
+        String id = cursor.token();
+        int nMeetings = cursor.integer();
+        LocalDate rangeStart = cursor.date(), rangeEnd = cursor.date();
+        if (nMeetings < 0 || rangeEnd.isBefore(rangeStart)) {
+            throw new IllegalArgumentException("Invalid problem header: " + line);
+        }
+
+        Set<DateConstraint> constraints = new HashSet<>();
+        while (cursor.separator()) {
+            DateConstraint constraint = cursor.constraint();
+            for (int var : constraint.scope()) {
+                if (var >= nMeetings) {
+                    throw new IllegalArgumentException("Invalid variable index");
+                }
+            }
+            constraints.add(constraint);
+        }
+        cursor.end();
+        return new Problem(id, nMeetings, rangeStart, rangeEnd, constraints);
+    }
+
+    /**
+     * @param problem Problem to write
+     * @return The problem as one line of the format above, without the newline
+     */
+    public static String format (Problem problem) {
+        StringBuilder out = new StringBuilder();
+        out.append(problem.ID).append(' ').append(problem.N_MEETINGS).append(' ')
+           .append(problem.RANGE_START).append(' ').append(problem.RANGE_END);
+        for (DateConstraint constraint : problem.CONSTRAINTS) {
+            out.append(" ; ");
+            if (constraint instanceof AllDifferentConstraint) {
+                out.append("alldiff");
+            } else if (constraint instanceof DayCapacityConstraint) {
+                out.append("cap ").append(((DayCapacityConstraint) constraint).CAPACITY);
+            }
+            if (constraint instanceof GlobalDateConstraint) {
+                for (int var : constraint.scope()) {
+                    out.append(' ').append(var);
+                }
+            } else if (constraint instanceof UnaryDateConstraint) {
+                out.append(constraint.L_VAL).append(' ').append(constraint.OP).append(' ').append(((UnaryDateConstraint) constraint).R_VAL);
+            } else {
+                out.append(constraint.L_VAL).append(' ').append(constraint.OP).append(' ').append(((BinaryDateConstraint) constraint).R_VAL);
+            }
+        }
+        return out.toString();
+    }
+
+
+    // Helper Methods / Classes
+
+    static boolean isBlankOrComment (String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '#') { return true; }
+            if (!Character.isWhitespace(c)) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Cursor over one line: tokens are runs of characters up to the next
+     * space or ';', read without splitting the line.
+     */
+    private static class Cursor {
+        private final String line;
+        private int pos;
+
+        Cursor (String line) {
+            this.line = line;
+        }
+
+        String token () {
+            skipSpaces();
+            int start = pos;
+            while (pos < line.length() && line.charAt(pos) != ';' && !Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Missing token");
+            }
+            return line.substring(start, pos);
+        }
+
+        int integer () {
+            skipSpaces();
+            int start = pos;
+            long value = 0;
+            while (pos < line.length() && Character.isDigit(line.charAt(pos)) && value <= Integer.MAX_VALUE) {
+                value = value * 10 + (line.charAt(pos++) - '0');
+            }
+            if (start == pos || value > Integer.MAX_VALUE || !atTokenEnd()) {
+                throw error("Expected a non-negative integer");
+            }
+            return (int) value;
+        }
+
+        LocalDate date () {
+            String token = token();
+            try {
+                return LocalDate.parse(token);
+            } catch (DateTimeParseException e) {
+                throw error("Invalid date " + token);
+            }
+        }
+
+        /**
+         * @return true if a ';' introduces another constraint
+         */
+        boolean separator () {
+            skipSpaces();
+            if (pos < line.length() && line.charAt(pos) == ';') {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        DateConstraint constraint () {
+            skipSpaces();
+            if (pos < line.length() && !Character.isDigit(line.charAt(pos))) {
+                String name = token();
+                int capacity = name.equals("cap") ? integer() : 1;
+                if (!name.equals("cap") && !name.equals("alldiff")) {
+                    throw error("Unknown constraint " + name);
+                }
+                int[] vars = variables();
+                return name.equals("cap") ? new DayCapacityConstraint(capacity, vars) : new AllDifferentConstraint(vars);
+            }
+
+            int left = integer();
+            String op = token();
+            skipSpaces();
+            // A date has a '-' right after its year digits; a variable does not
+            int end = pos;
+            while (end < line.length() && Character.isDigit(line.charAt(end))) {
+                end++;
+            }
+            if (end < line.length() && line.charAt(end) == '-') {
+                return new UnaryDateConstraint(left, op, date());
+            }
+            return new BinaryDateConstraint(left, op, integer());
+        }
+
+        void end () {
+            skipSpaces();
+            if (pos < line.length()) {
+                throw error("Unexpected input");
+            }
+        }
+
+        private int[] variables () {
+            int count = 0, mark = pos;
+            while (!atConstraintEnd()) {
+                integer();
+                count++;
+            }
+            pos = mark;
+            int[] vars = new int[count];
+            for (int i = 0; i < count; i++) {
+                vars[i] = integer();
+            }
+            return vars;
+        }
+
+        private boolean atConstraintEnd () {
+            skipSpaces();
+            return pos == line.length() || line.charAt(pos) == ';';
+        }
+
+        private boolean atTokenEnd () {
+            return pos == line.length() || line.charAt(pos) == ';' || Character.isWhitespace(line.charAt(pos));
+        }
+
+        private void skipSpaces () {
+            while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error (String message) {
+            return new IllegalArgumentException(message + " at column " + (pos + 1) + ": " + line);
+        }
+    }
+
+}
@@ -0,0 +1,384 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import csp.CSP.DateVar;
+
+/**
+ * Solutions: enumeration and counting of every schedule satisfying a
+ * calendar, rather than just the first one CSP.solve finds.
+ * <ul>
+ *   <li>iterator / stream produce solutions lazily, one backtracking step
+ *       at a time, so only the current partial assignment is in memory</li>
+ *   <li>count multiplies the counts of the independent components of the
+ *       constraint graph, and within a component memoizes the count of the
+ *       remaining subproblem on the dates of the already-assigned meetings
+ *       that still constrain it</li>
+ * </ul>
+ * Both take a limit and an optional cancellation flag.
+ */
+public class Solutions {
+
+    private static final int MAX_MEMO_ENTRIES = 1 << 20;
+
+    /**
+     * Lazily enumerates the satisfying schedules of a calendar.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param limit Maximum number of solutions to produce
+     * @param cancelled When set (from any thread), iteration ends early; may be null
+     * @return An iterator over distinct solutions, each a fresh list
+     */
+    public static Iterator<List<LocalDate>> iterator (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+                                                      Set<DateConstraint> constraints, long limit, AtomicBoolean cancelled) {
+        List<DateVar> domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, constraints);
+        return new SolutionIterator(domains, nMeetings, constraints, limit, cancelled);
+    }
+
+    /**
+     * Stream view of iterator; solutions are only searched for as the
+     * stream is consumed, so short-circuiting operations stop the search.
+     * @return A sequential stream of distinct solutions
+     */
+    public static Stream<List<LocalDate>> stream (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+                                                  Set<DateConstraint> constraints, long limit, AtomicBoolean cancelled) {
+        Iterator<List<LocalDate>> solutions = iterator(nMeetings, rangeStart, rangeEnd, constraints, limit, cancelled);
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(solutions, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL),
+            false
+        );
+    }
+
+    /**
+     * Counts the satisfying schedules of a calendar.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Date constraints on the meeting times
+     * @param limit Counting stops once this many are known to exist
+     * @param cancelled When set (from any thread), counting is abandoned; may be null
+     * @return The number of solutions, or limit if there are at least that many
+     * @throws CancellationException if cancelled before the count finished
+     */
+    public static long count (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+                              Set<DateConstraint> constraints, long limit, AtomicBoolean cancelled) {
+        List<DateVar> domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, constraints);
+        if (domains == null || limit <= 0) {
+            return 0;
+        }
+
+        List<List<DateConstraint>> incident = CSP.indexConstraints(nMeetings, constraints);
+        long total = 1;
+        for (int[] component : components(nMeetings, domains, incident)) {
+            long componentCount = new ComponentCounter(component, domains, incident, limit, cancelled).count();
+            if (componentCount == 0) {
+                return 0;
+            }
+            total = cappedProduct(total, componentCount, limit);
+        }
+        return total;
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * Splits the meetings into connected components of the constraint graph,
+     * each listed in breadth-first order from its smallest-domain meeting so
+     * that few assigned meetings border the unassigned rest at any depth.
+     */
+    static List<int[]> components (int nMeetings, List<DateVar> domains, List<List<DateConstraint>> incident) {
+        Integer[] bySize = new Integer[nMeetings];
+        for (int i = 0; i < nMeetings; i++) {
+            bySize[i] = i;
+        }
+        Arrays.sort(bySize, (a, b) -> Integer.compare(domains.get(a).domain.size(), domains.get(b).domain.size()));
+
+        boolean[] seen = new boolean[nMeetings];
+        List<int[]> result = new ArrayList<>();
+        for (int root : bySize) {
+            if (seen[root]) { continue; }
+            List<Integer> order = new ArrayList<>();
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(root);
+            seen[root] = true;
+            while (!queue.isEmpty()) {
+                int var = queue.poll();
+                order.add(var);
+                for (DateConstraint constraint : incident.get(var)) {
+                    for (int other : constraint.scope()) {
+                        if (!seen[other]) {
+                            seen[other] = true;
+                            queue.add(other);
+                        }
+                    }
+                }
+            }
+            result.add(order.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return result;
+    }
+
+    static long cappedSum (long a, long b, long limit) {
+        long sum = a + b;
+        return (sum < 0 || sum > limit) ? limit : sum;
+    }
+
+    static long cappedProduct (long a, long b, long limit) {
+        if (a != 0 && b > limit / a) {
+            return limit;
+        }
+        return Math.min(a * b, limit);
+    }
+
+    private static void checkCancelled (AtomicBoolean cancelled) {
+        if (cancelled != null && cancelled.get()) {
+            throw new CancellationException("Solution count cancelled");
+        }
+    }
+
+    /**
+     * Iterative backtracking with an explicit per-level cursor, so that the
+     * search can pause after each solution and resume on the next call.
+     */
+    static class SolutionIterator implements Iterator<List<LocalDate>> {
+        private final int nVars;
+        private final List<List<LocalDate>> values;
+        private final List<List<DateConstraint>> incident;
+        private final List<LocalDate> assignment;
+        private final int[] next;
+        private final AtomicBoolean cancelled;
+        private final long limit;
+        private long produced;
+        private int level;
+        private boolean exhausted;
+        private List<LocalDate> pending;
+
+        SolutionIterator (List<DateVar> domains, int nMeetings, Set<DateConstraint> constraints, long limit, AtomicBoolean cancelled) {
+            nVars = nMeetings;
+            this.limit = limit;
+            this.cancelled = cancelled;
+            incident = CSP.indexConstraints(nMeetings, constraints);
+            values = new ArrayList<>(nMeetings);
+            exhausted = (domains == null);
+            if (!exhausted) {
+                for (DateVar var : domains) {
+                    List<LocalDate> ordered = new ArrayList<>(var.domain);
+                    ordered.sort(null);
+                    values.add(ordered);
+                }
+            }
+            assignment = new ArrayList<>(nMeetings);
+            CSP.initializeAssignment(assignment, nMeetings);
+            next = new int[nMeetings];
+        }
+
+        @Override
+        public boolean hasNext () {
+            if (pending == null && !exhausted) {
+                pending = advance();
+            }
+            return pending != null;
+        }
+
+        @Override
+        public List<LocalDate> next () {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<LocalDate> result = pending;
+            pending = null;
+            return result;
+        }
+
+        /**
+         * Resumes the search from the last solution (or the start).
+         * @return The next solution, or null once exhausted, limited or cancelled
+         */
+        private List<LocalDate> advance () {
+            if (produced >= limit) {
+                exhausted = true;
+                return null;
+            }
+            if (nVars == 0) {
+                exhausted = true;
+                produced++;
+                return new ArrayList<>();
+            }
+            if (level == nVars) {
+                level--;
+            }
+
+            while (level >= 0) {
+                if (cancelled != null && cancelled.get()) {
+                    exhausted = true;
+                    return null;
+                }
+
+                List<LocalDate> candidates = values.get(level);
+                boolean assigned = false;
+                while (next[level] < candidates.size()) {
+                    assignment.set(level, candidates.get(next[level]++));
+                    if (CSP.checkVariableConsistency(level, assignment, incident)) {
+                        assigned = true;
+                        break;
+                    }
+                }
+
+                if (!assigned) {
+                    assignment.set(level, null);
+                    next[level] = 0;
+                    level--;
+                } else if (++level == nVars) {
+                    produced++;
+                    return new ArrayList<>(assignment);
+                }
+            }
+            exhausted = true;
+            return null;
+        }
+    }
+
+    /**
+     * Memoized count of one component. At depth d the count of the rest of
+     * the component depends only on the dates of the frontier: the meetings
+     * assigned before d that share a constraint with a meeting at or after d.
+     */
+    static class ComponentCounter {
+        private final int[] order;
+        private final int[][] frontier;
+        private final List<List<LocalDate>> values;
+        private final List<List<DateConstraint>> incident;
+        private final List<LocalDate> assignment;
+        private final long limit;
+        private final AtomicBoolean cancelled;
+        private final Map<MemoKey, Long> memo = new HashMap<>();
+
+        ComponentCounter (int[] order, List<DateVar> domains, List<List<DateConstraint>> incident, long limit, AtomicBoolean cancelled) {
+            this.order = order;
+            this.incident = incident;
+            this.limit = limit;
+            this.cancelled = cancelled;
+
+            int nVars = domains.size();
+            int[] position = new int[nVars];
+            Arrays.fill(position, -1);
+            for (int d = 0; d < order.length; d++) {
+                position[order[d]] = d;
+            }
+
+            // lastUse[v] = deepest position of v or any of its neighbors, so v
+            // is on the frontier for depths in (position[v], lastUse[v]]
+            int[] lastUse = new int[order.length];
+            for (int d = 0; d < order.length; d++) {
+                lastUse[d] = d;
+                for (DateConstraint constraint : incident.get(order[d])) {
+                    for (int other : constraint.scope()) {
+                        lastUse[d] = Math.max(lastUse[d], position[other]);
+                    }
+                }
+            }
+            frontier = new int[order.length + 1][];
+            for (int depth = 0; depth <= order.length; depth++) {
+                List<Integer> vars = new ArrayList<>();
+                for (int d = 0; d < depth; d++) {
+                    if (lastUse[d] >= depth) {
+                        vars.add(order[d]);
+                    }
+                }
+                frontier[depth] = vars.stream().mapToInt(Integer::intValue).toArray();
+            }
+
+            values = new ArrayList<>(nVars);
+            for (DateVar var : domains) {
+                values.add(new ArrayList<>(var.domain));
+            }
+            assignment = new ArrayList<>(nVars);
+            CSP.initializeAssignment(assignment, nVars);
+        }
+
+        long count () {
+            return countFrom(0);
+        }
+
+        private long countFrom (int depth) {
+            if (depth == order.length) {
+                return 1;
+            }
+            checkCancelled(cancelled);
+
+            int[] days = new int[frontier[depth].length];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = (int) assignment.get(frontier[depth][i]).toEpochDay();
+            }
+            MemoKey key = new MemoKey(depth, days);
+            Long cached = memo.get(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            int var = order[depth];
+            long total = 0;
+            for (LocalDate date : values.get(var)) {
+                assignment.set(var, date);
+                if (CSP.checkVariableConsistency(var, assignment, incident)) {
+                    total = cappedSum(total, countFrom(depth + 1), limit);
+                    if (total >= limit) {
+                        break;
+                    }
+                }
+            }
+            assignment.set(var, null);
+
+            if (memo.size() >= MAX_MEMO_ENTRIES) {
+                memo.clear();
+            }
+            memo.put(key, total);
+            return total;
+        }
+    }
+
+    static class MemoKey {
+        final int depth;
+        final int[] days;
+        final int hash;
+
+        MemoKey (int depth, int[] days) {
+            this.depth = depth;
+            this.days = days;
+            hash = 31 * depth + Arrays.hashCode(days);
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (!(other instanceof MemoKey)) {
+                return false;
+            }
+            MemoKey key = (MemoKey) other;
+            return depth == key.depth && Arrays.equals(days, key.days);
+        }
+
+        @Override
+        public int hashCode () {
+            return hash;
+        }
+    }
+
+}
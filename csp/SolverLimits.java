@@ -0,0 +1,115 @@
+package csp;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SolverLimits: resource limits on a CSP search, so a request can be
+ * given a deadline instead of running for as long as the search takes.
+ * A search that hits a limit gives up and returns null, and the
+ * SolverStats of the run report isLimitReached to tell this apart from
+ * a proof that the calendar is infeasible.
+ */
+public class SolverLimits {
+
+    /** No limits: the search runs to completion */
+    public static final SolverLimits NONE = new SolverLimits(0, 0, null);
+
+    public final long TIME_LIMIT_MILLIS;
+    public final long NODE_LIMIT;
+    private final AtomicBoolean cancelled;
+
+    /**
+     * @param timeLimitMillis Wall-clock budget in milliseconds, or 0 for none
+     * @param nodeLimit Maximum number of value assignments tried, or 0 for none
+     * @param cancelled Flag another thread may set to stop the search; may be null
+     */
+    public SolverLimits (long timeLimitMillis, long nodeLimit, AtomicBoolean cancelled) {
+        if (timeLimitMillis < 0 || nodeLimit < 0) {
+            throw new IllegalArgumentException("Invalid limit");
+        }
+        TIME_LIMIT_MILLIS = timeLimitMillis;
+        NODE_LIMIT = nodeLimit;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Starts the clock on these limits for one solve.
+     * @return The budget the search draws its nodes from
+     */
+    Budget start () {
+        return new Budget(new Deadline(TIME_LIMIT_MILLIS), (NODE_LIMIT > 0) ? NODE_LIMIT : Long.MAX_VALUE, cancelled);
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * A wall-clock time limit started on construction. System.nanoTime may be
+     * negative and may wrap around, so only differences between its values
+     * are compared, never an absolute deadline.
+     */
+    static class Deadline {
+        private final long start, nanos;
+
+        /**
+         * @param timeLimitMillis Time limit in milliseconds, or 0 for none
+         */
+        Deadline (long timeLimitMillis) {
+            start = System.nanoTime();
+            // Saturates, so a huge limit is just a very long one
+            nanos = (timeLimitMillis > 0) ? TimeUnit.MILLISECONDS.toNanos(timeLimitMillis) : Long.MAX_VALUE;
+        }
+
+        /**
+         * @return true once the time limit has run out
+         */
+        boolean passed () {
+            return System.nanoTime() - start >= nanos;
+        }
+    }
+
+    /**
+     * Nodes and time left to one solve, shared by every search it starts
+     * (e.g., the components of a decomposed calendar, possibly running
+     * concurrently). Once exhausted it stays exhausted.
+     */
+    static class Budget {
+        private final Deadline deadline;
+        private final long nodeLimit;
+        private final AtomicBoolean cancelled;
+        private final AtomicLong spent = new AtomicLong();
+        private volatile boolean exhausted;
+
+        Budget (Deadline deadline, long nodeLimit, AtomicBoolean cancelled) {
+            this.deadline = deadline;
+            this.nodeLimit = nodeLimit;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * Charges one node to the budget. The clock is read only every 256
+         * nodes, so a time limit may be overrun by that many nodes.
+         * @return false if the search must stop instead of trying the node
+         */
+        boolean spend () {
+            if (exhausted) {
+                return false;
+            }
+            long nodes = spent.incrementAndGet();
+            if (nodes > nodeLimit
+                || ((nodes & 0xff) == 0 && deadline.passed())
+                || (cancelled != null && cancelled.get())) {
+                exhausted = true;
+                return false;
+            }
+            return true;
+        }
+
+        boolean isExhausted () {
+            return exhausted;
+        }
+    }
+
+}
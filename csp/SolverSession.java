@@ -0,0 +1,265 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import csp.CSP.DateVar;
+
+/**
+ * SolverSession: a stateful CSP solver for calendars that change one
+ * constraint at a time. The session keeps the propagated domains and the
+ * last solution between edits and, on each delta, only re-solves what
+ * the delta actually broke:
+ * <ul>
+ *   <li>removing a constraint never invalidates a solution</li>
+ *   <li>adding a constraint to an infeasible calendar keeps it infeasible</li>
+ *   <li>adding a constraint the last solution already satisfies is free</li>
+ *   <li>otherwise the meetings of the violated constraint are freed and
+ *       re-searched with every other meeting held in place, widening the
+ *       freed region to its neighbours until a repair is found or the
+ *       whole calendar is free (i.e., a full search)</li>
+ * </ul>
+ * Constraints are identified by object identity, so pass the same
+ * instance to removeConstraint that was given to addConstraint.
+ */
+public class SolverSession {
+
+    private final int nMeetings;
+    private final LocalDate rangeStart, rangeEnd;
+    private final Set<DateConstraint> constraints;
+    private final List<List<DateConstraint>> incident;
+    private List<DateVar> domains;
+    private List<LocalDate> solution;
+    private boolean dirtyDomains;
+    private int lastRepairSize;
+
+    /**
+     * Opens a session over an initially unconstrained calendar.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     */
+    public SolverSession (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd) {
+        this(nMeetings, rangeStart, rangeEnd, new HashSet<DateConstraint>());
+    }
+
+    /**
+     * Opens a session and solves the given calendar from scratch.
+     * @param nMeetings The number of meetings that must be scheduled
+     * @param rangeStart The start date (inclusive) of each domain
+     * @param rangeEnd The end date (inclusive) of each domain
+     * @param constraints Initial date constraints on the meeting times
+     */
+    public SolverSession (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints) {
+        this.nMeetings = nMeetings;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.constraints = new HashSet<>(constraints);
+        incident = CSP.indexConstraints(nMeetings, this.constraints);
+        domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, this.constraints);
+        solution = (domains == null) ? null : repair(allVars());
+    }
+
+    /**
+     * Adds a constraint and repairs the current solution around it.
+     * Adding a constraint already in the session changes nothing.
+     * @param constraint The new constraint
+     * @return The updated solution, or null if the calendar is now infeasible
+     */
+    public List<LocalDate> addConstraint (DateConstraint constraint) {
+        checkIndexes(constraint);
+        if (!constraints.add(constraint)) {
+            return getSolution();
+        }
+        for (int var : constraint.scope()) {
+            incident.get(var).add(constraint);
+        }
+        lastRepairSize = 0;
+        if (solution == null) {
+            return null;
+        }
+
+        tightenDomains(constraint);
+        if (domains == null) {
+            solution = null;
+            return null;
+        }
+
+        BitSet free = new BitSet(nMeetings);
+        for (int i = 0; i < nMeetings; i++) {
+            if (!domains.get(i).domain.contains(solution.get(i))) {
+                free.set(i);
+            }
+        }
+        if (!CSP.checkVariableConsistency(constraint.L_VAL, solution, incident)) {
+            for (int var : constraint.scope()) {
+                free.set(var);
+            }
+        }
+        if (!free.isEmpty()) {
+            solution = repair(free);
+        }
+        return getSolution();
+    }
+
+    /**
+     * Removes a constraint; a current solution stays valid, while an
+     * infeasible calendar is re-solved since it may now be feasible.
+     * @param constraint The constraint instance to remove
+     * @return The updated solution, or null if the calendar is still infeasible
+     */
+    public List<LocalDate> removeConstraint (DateConstraint constraint) {
+        if (!constraints.remove(constraint)) {
+            return getSolution();
+        }
+        for (int var : constraint.scope()) {
+            incident.get(var).remove(constraint);
+        }
+
+        // Propagation can't be undone, so domains are rebuilt lazily on the
+        // next repair that actually needs them
+        dirtyDomains = true;
+        lastRepairSize = 0;
+        if (solution == null) {
+            domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, constraints);
+            dirtyDomains = false;
+            solution = (domains == null) ? null : repair(allVars());
+        }
+        return getSolution();
+    }
+
+    /**
+     * @return A copy of the current solution, or null if infeasible
+     */
+    public List<LocalDate> getSolution () {
+        return (solution == null) ? null : new ArrayList<>(solution);
+    }
+
+    /**
+     * @return An unmodifiable view of the session's current constraints
+     */
+    public Set<DateConstraint> getConstraints () {
+        return Collections.unmodifiableSet(constraints);
+    }
+
+    /**
+     * @return The number of meetings that had to be re-searched by the last
+     *         delta (0 if the previous solution was kept as-is)
+     */
+    public int getLastRepairSize () {
+        return lastRepairSize;
+    }
+
+
+    // Helper Methods / Classes
+
+    private void checkIndexes (DateConstraint constraint) {
+        for (int var : constraint.scope()) {
+            if (var >= nMeetings) {
+                throw new IllegalArgumentException("Invalid variable index");
+            }
+        }
+    }
+
+    private BitSet allVars () {
+        BitSet all = new BitSet(nMeetings);
+        all.set(0, nMeetings);
+        return all;
+    }
+
+    /**
+     * Applies the new constraint's consistency to the kept domains, or
+     * rebuilds them if a removal left them stale.
+     */
+    private void tightenDomains (DateConstraint constraint) {
+        if (dirtyDomains) {
+            domains = CSP.propagateDomains(nMeetings, rangeStart, rangeEnd, constraints);
+            dirtyDomains = false;
+            return;
+        }
+
+        if (constraint instanceof GlobalDateConstraint) {
+            if (!((GlobalDateConstraint) constraint).propagate(domains)) {
+                domains = null;
+            }
+        } else if (constraint.arity() == 1) {
+            CSP.nodeConsistency((UnaryDateConstraint) constraint, domains);
+        } else {
+            BinaryDateConstraint binary = (BinaryDateConstraint) constraint;
+            if (binary.isOrdering()) {
+                CSP.constrainWithBoundsConsistency(binary, domains);
+                if (!new PrecedenceGraph(nMeetings, constraints).propagate(domains)) {
+                    domains = null;
+                }
+            } else {
+                CSP.constrainWithArcConsistency(binary, domains);
+            }
+        }
+    }
+
+    /**
+     * Re-searches the free meetings with all others held at their current
+     * dates, doubling the free region by its constraint neighbours after
+     * each failure until it covers every meeting.
+     * @param free Meetings that must be re-assigned
+     * @return A full solution, or null if none exists
+     */
+    private List<LocalDate> repair (BitSet free) {
+        List<LocalDate> assignment = new ArrayList<>(nMeetings);
+        CSP.initializeAssignment(assignment, nMeetings);
+
+        while (true) {
+            for (int i = 0; i < nMeetings; i++) {
+                assignment.set(i, free.get(i) ? null : solution.get(i));
+            }
+
+            List<Integer> order = new ArrayList<>(free.cardinality());
+            free.stream().forEach(order::add);
+            order.sort((a, b) -> Integer.compare(domains.get(a).domain.size(), domains.get(b).domain.size()));
+            lastRepairSize = order.size();
+
+            if (search(assignment, order, 0)) {
+                return assignment;
+            }
+            if (free.cardinality() == nMeetings) {
+                return null;
+            }
+
+            BitSet grown = (BitSet) free.clone();
+            free.stream().forEach(var -> {
+                for (DateConstraint constraint : incident.get(var)) {
+                    for (int other : constraint.scope()) {
+                        grown.set(other);
+                    }
+                }
+            });
+            if (grown.equals(free)) {
+                // Free region is a closed component that has no solution
+                return null;
+            }
+            free = grown;
+        }
+    }
+
+    private boolean search (List<LocalDate> assignment, List<Integer> order, int depth) {
+        if (depth == order.size()) {
+            return true;
+        }
+
+        int var = order.get(depth);
+        for (LocalDate date : domains.get(var).domain) {
+            assignment.set(var, date);
+            if (CSP.checkVariableConsistency(var, assignment, incident) && search(assignment, order, depth + 1)) {
+                return true;
+            }
+        }
+        assignment.set(var, null);
+        return false;
+    }
+
+}
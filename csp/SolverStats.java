@@ -0,0 +1,140 @@
+package csp;
+
+/**
+ * SolverStats: counters accumulated by a CSP search, used to compare
+ * search algorithms by effort as well as by answer. A single instance
+ * may be passed to several solves to total their work.
+ *
+ * Time is split between consistency propagation and search. Both are
+ * summed over every run, so for concurrent runs (e.g., a parallel
+ * decomposition) they can add up to more than the elapsed wall-clock time.
+ */
+public class SolverStats {
+
+    long nodes;
+    long backtracks;
+    long backjumpLevels;
+    long nogoodsRecorded;
+    long nogoodPrunes;
+    long propagations;
+    long wipeouts;
+    long propagationNanos;
+    long searchNanos;
+    long elapsedNanos;
+    boolean limitReached;
+    
+    /**
+     * @return Number of value assignments tried by the search
+     */
+    public long getNodes () {
+        return nodes;
+    }
+    
+    /**
+     * @return Number of dead ends the search had to retreat from
+     */
+    public long getBacktracks () {
+        return backtracks;
+    }
+    
+    /**
+     * @return Total number of levels skipped by backjumps beyond the one
+     *         level a chronological backtrack would have retreated
+     */
+    public long getBackjumpLevels () {
+        return backjumpLevels;
+    }
+    
+    /**
+     * @return Number of nogoods added to the nogood store
+     */
+    public long getNogoodsRecorded () {
+        return nogoodsRecorded;
+    }
+    
+    /**
+     * @return Number of values rejected by a recorded nogood
+     */
+    public long getNogoodPrunes () {
+        return nogoodPrunes;
+    }
+    
+    /**
+     * @return Number of propagator runs (one per constraint filtered, plus
+     *         the precedence graph) during preprocessing, and of global
+     *         constraints forward checked during backtracking
+     */
+    public long getPropagations () {
+        return propagations;
+    }
+    
+    /**
+     * @return Number of domain wipeouts: preprocessing passes that emptied a
+     *         domain, each proving its calendar infeasible before any search,
+     *         plus forward checks during backtracking that emptied a future
+     *         domain and so pruned the subtree below
+     */
+    public long getWipeouts () {
+        return wipeouts;
+    }
+    
+    /**
+     * @return Time spent in consistency propagation, in nanoseconds,
+     *         including forward checking during backtracking
+     */
+    public long getPropagationNanos () {
+        return propagationNanos;
+    }
+    
+    /**
+     * @return Time spent in search after propagation, in nanoseconds, less
+     *         the time spent forward checking
+     */
+    public long getSearchNanos () {
+        return searchNanos;
+    }
+    
+    /**
+     * @return true if some search gave up on a SolverLimits, so a null
+     *         answer does not prove the calendar infeasible
+     */
+    public boolean isLimitReached () {
+        return limitReached;
+    }
+    
+    /**
+     * @return Wall-clock time spent in solve, in nanoseconds
+     */
+    public long getElapsedNanos () {
+        return elapsedNanos;
+    }
+    
+    /**
+     * Adds the search counters of another run (e.g., one component of a
+     * decomposed calendar) into these; elapsed time is left to the caller,
+     * since runs may overlap.
+     * @param other Statistics to merge in
+     */
+    void add (SolverStats other) {
+        nodes += other.nodes;
+        backtracks += other.backtracks;
+        backjumpLevels += other.backjumpLevels;
+        nogoodsRecorded += other.nogoodsRecorded;
+        nogoodPrunes += other.nogoodPrunes;
+        propagations += other.propagations;
+        wipeouts += other.wipeouts;
+        propagationNanos += other.propagationNanos;
+        searchNanos += other.searchNanos;
+        limitReached |= other.limitReached;
+    }
+    
+    @Override
+    public String toString () {
+        return "nodes=" + nodes + " backtracks=" + backtracks + " backjumpLevels=" + backjumpLevels
+             + " nogoods=" + nogoodsRecorded + " nogoodPrunes=" + nogoodPrunes
+             + " propagations=" + propagations + " wipeouts=" + wipeouts
+             + " propagationMs=" + (propagationNanos / 1_000_000) + " searchMs=" + (searchNanos / 1_000_000)
+             + " elapsedMs=" + (elapsedNanos / 1_000_000) + (limitReached ? " (limit reached)" : "");
+    }
+    
+}
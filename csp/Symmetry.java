@@ -0,0 +1,183 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symmetry: detects interchangeable meetings, i.e., pairs whose swap maps
+ * the constraint set onto itself (same unary constraints, same neighbours
+ * under the same operators, and the same global constraints). Within a
+ * group of interchangeable meetings any solution can be permuted into
+ * one where their dates are non-decreasing in meeting order, so adding
+ * m1 <= m2 <= ... <= mk keeps every calendar satisfiable that was before
+ * while cutting the k! equivalent orderings the search would otherwise
+ * retry after each failure.
+ *
+ * Meetings without constraints are left out, since no failure is ever
+ * retried over their dates.
+ *
+ * Swaps compose, so interchangeability is an equivalence: each meeting is
+ * only tested against one representative of each candidate group, and
+ * candidates are pre-bucketed by a swap-invariant signature.
+ */
+public class Symmetry {
+
+    /**
+     * @param nMeetings The number of meetings
+     * @param constraints Constraints of the problem
+     * @return Each group of two or more interchangeable meetings, in
+     *         increasing index order
+     */
+    public static List<int[]> interchangeable (int nMeetings, Set<DateConstraint> constraints) {
+        List<List<DateConstraint>> incident = CSP.indexConstraints(nMeetings, constraints);
+        Set<String> keys = new HashSet<>();
+        for (DateConstraint constraint : constraints) {
+            String key = key(constraint, -1, -1);
+            if (key == null) {
+                // Unknown global constraint: its meetings are left alone
+                for (int var : constraint.scope()) {
+                    incident.set(var, null);
+                }
+                continue;
+            }
+            keys.add(key);
+        }
+
+        Map<String, List<List<Integer>>> buckets = new HashMap<>();
+        for (int var = 0; var < nMeetings; var++) {
+            // An unconstrained meeting never causes a failure to retry
+            if (incident.get(var) == null || incident.get(var).isEmpty()) { continue; }
+            List<List<Integer>> groups = buckets.computeIfAbsent(signature(var, incident.get(var)), k -> new ArrayList<>());
+            List<Integer> home = null;
+            for (List<Integer> group : groups) {
+                if (swappable(group.get(0), var, incident, keys)) {
+                    home = group;
+                    break;
+                }
+            }
+            if (home == null) {
+                home = new ArrayList<>();
+                groups.add(home);
+            }
+            home.add(var);
+        }
+
+        List<int[]> result = new ArrayList<>();
+        for (List<List<Integer>> groups : buckets.values()) {
+            for (List<Integer> group : groups) {
+                if (group.size() > 1) {
+                    result.add(group.stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+        }
+        result.sort((a, b) -> Integer.compare(a[0], b[0]));
+        return result;
+    }
+
+    /**
+     * @param nMeetings The number of meetings
+     * @param constraints Constraints of the problem
+     * @return The constraints plus a chain of <= over each group of
+     *         interchangeable meetings; the given set is not changed
+     */
+    public static Set<DateConstraint> breakSymmetry (int nMeetings, Set<DateConstraint> constraints) {
+        List<int[]> groups = interchangeable(nMeetings, constraints);
+        if (groups.isEmpty()) {
+            return constraints;
+        }
+        Set<DateConstraint> result = new HashSet<>(constraints);
+        for (int[] group : groups) {
+            for (int i = 0; i + 1 < group.length; i++) {
+                result.add(new BinaryDateConstraint(group[i], "<=", group[i + 1]));
+            }
+        }
+        return result;
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * @return Whether swapping a and b maps every constraint on either of
+     *         them to a constraint of the problem
+     */
+    private static boolean swappable (int a, int b, List<List<DateConstraint>> incident, Set<String> keys) {
+        for (int var : new int[] {a, b}) {
+            for (DateConstraint constraint : incident.get(var)) {
+                if (!keys.contains(key(constraint, a, b))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Describes var's constraints without naming any meeting, so
+     * interchangeable meetings always share a signature.
+     */
+    private static String signature (int var, List<DateConstraint> constraints) {
+        String[] parts = new String[constraints.size()];
+        for (int i = 0; i < parts.length; i++) {
+            DateConstraint constraint = constraints.get(i);
+            if (constraint instanceof BinaryDateConstraint) {
+                Operator op = (constraint.L_VAL == var) ? constraint.OPERATOR : constraint.OPERATOR.flip();
+                parts[i] = "B" + op.SYMBOL;
+            } else if (constraint instanceof UnaryDateConstraint) {
+                parts[i] = "U" + constraint.OP + ((UnaryDateConstraint) constraint).R_DAY;
+            } else {
+                String key = key(constraint, -1, -1);
+                parts[i] = key.substring(0, key.indexOf('[')) + constraint.scope().length;
+            }
+        }
+        Arrays.sort(parts);
+        return String.join(";", parts);
+    }
+
+    /**
+     * @return A value key of the constraint after swapping meetings a and b
+     *         (binary constraints normalized to the smaller meeting on the
+     *         left), or null for a global constraint of unknown symmetry
+     */
+    private static String key (DateConstraint constraint, int a, int b) {
+        if (constraint instanceof UnaryDateConstraint) {
+            return "U" + swap(constraint.L_VAL, a, b) + constraint.OP + ((UnaryDateConstraint) constraint).R_DAY;
+        }
+        if (constraint instanceof BinaryDateConstraint) {
+            int left = swap(constraint.L_VAL, a, b), right = swap(((BinaryDateConstraint) constraint).R_VAL, a, b);
+            Operator op = constraint.OPERATOR;
+            if (left > right) {
+                int swapped = left;
+                left = right;
+                right = swapped;
+                op = op.flip();
+            }
+            return "B" + left + op.SYMBOL + right;
+        }
+
+        String kind;
+        if (constraint instanceof AllDifferentConstraint) {
+            kind = "A";
+        } else if (constraint instanceof DayCapacityConstraint) {
+            kind = "C" + ((DayCapacityConstraint) constraint).CAPACITY;
+        } else {
+            return null;
+        }
+        int[] vars = constraint.scope().clone();
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = swap(vars[i], a, b);
+        }
+        Arrays.sort(vars);
+        return kind + Arrays.toString(vars);
+    }
+
+    private static int swap (int var, int a, int b) {
+        return (var == a) ? b : (var == b) ? a : var;
+    }
+
+}
@@ -14,6 +14,8 @@ import java.time.LocalDate;
 public class UnaryDateConstraint extends DateConstraint {
 
     public final LocalDate R_VAL;
+    public final int R_DAY;
+    private final int[] scope;
     
     /**
      * Constructs a new BinaryDateConstraint that constrains the meeting
@@ -27,6 +29,13 @@ public class UnaryDateConstraint extends DateConstraint {
     UnaryDateConstraint (int lVal, String operator, LocalDate rVal) {
         super(lVal, operator);
         R_VAL = rVal;
+        R_DAY = (int) rVal.toEpochDay();
+        scope = new int[] {lVal};
+    }
+    
+    @Override
+    public int[] scope () {
+        return scope;
     }
     
     @Override
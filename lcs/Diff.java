@@ -0,0 +1,308 @@
+package lcs;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Diff: edit scripts between two sequences of lines or tokens, built on the
+ * LCS engines over int symbols. A diff is a series of maximal runs, each one
+ * of
+ * <ul>
+ *   <li>KEEP: rSeq[R_FROM, R_TO) equals cSeq[C_FROM, C_TO)</li>
+ *   <li>DELETE: rSeq[R_FROM, R_TO) is not in cSeq</li>
+ *   <li>INSERT: cSeq[C_FROM, C_TO) is not in rSeq</li>
+ * </ul>
+ * covering both sequences in order; a DELETE comes before the INSERT it is
+ * adjacent to. The common prefix and suffix are trimmed off before any DP,
+ * so a small edit to a large file costs little more than finding it.
+ *
+ * Runs are produced lazily: when matches are sparse (see LCS.isSparse) the
+ * Hunt-Szymanski matches are walked in order, and otherwise the Hirschberg
+ * recursion is unrolled on an explicit stack, leftmost subproblem first, so
+ * only the part of the alignment needed for the next run is computed, in
+ * O(m + n) memory.
+ */
+public class Diff {
+
+    public enum Op { KEEP, DELETE, INSERT }
+
+    /**
+     * One run of an edit script
+     */
+    public static class Edit {
+        public final Op OP;
+        public final int R_FROM, R_TO, C_FROM, C_TO;
+
+        public Edit (Op op, int rFrom, int rTo, int cFrom, int cTo) {
+            OP = op;
+            R_FROM = rFrom;
+            R_TO = rTo;
+            C_FROM = cFrom;
+            C_TO = cTo;
+        }
+
+        /**
+         * @return The number of symbols kept, deleted or inserted
+         */
+        public int length () {
+            return Math.max(R_TO - R_FROM, C_TO - C_FROM);
+        }
+
+        @Override
+        public boolean equals (Object other) {
+            if (!(other instanceof Edit)) { return false; }
+            Edit edit = (Edit) other;
+            return OP == edit.OP && R_FROM == edit.R_FROM && R_TO == edit.R_TO && C_FROM == edit.C_FROM && C_TO == edit.C_TO;
+        }
+
+        @Override
+        public int hashCode () {
+            return Objects.hash(OP, R_FROM, R_TO, C_FROM, C_TO);
+        }
+
+        @Override
+        public String toString () {
+            return OP + " r[" + R_FROM + ", " + R_TO + ") c[" + C_FROM + ", " + C_TO + ")";
+        }
+    }
+
+    /**
+     * @param rSeq The original sequence, e.g., interned line ids
+     * @param cSeq The changed sequence
+     * @return The runs of a shortest edit script from rSeq to cSeq, lazily
+     */
+    public static Iterator<Edit> diff (int[] rSeq, int[] cSeq) {
+        return new EditIterator(rSeq, cSeq);
+    }
+
+    /**
+     * @param rList The original lines or tokens
+     * @param cList The changed lines or tokens
+     * @return The runs of a shortest edit script from rList to cList, lazily;
+     *         elements are compared with equals
+     */
+    public static <T> Iterator<Edit> diff (List<? extends T> rList, List<? extends T> cList) {
+        Map<T, Integer> ids = new HashMap<>();
+        return diff(intern(rList, ids), intern(cList, ids));
+    }
+
+
+    // Helper Methods / Classes
+
+    private static <T> int[] intern (List<? extends T> list, Map<T, Integer> ids) {
+        int[] symbols = new int[list.size()];
+        int i = 0;
+        for (T element : list) {
+            Integer id = ids.get(element);
+            if (id == null) {
+                id = ids.size();
+                ids.put(element, id);
+            }
+            symbols[i++] = id;
+        }
+        return symbols;
+    }
+
+    /**
+     * Turns the matches of one LCS, in order, into maximal runs
+     */
+    private static class EditIterator implements Iterator<Edit> {
+        private final int[] rSeq, cSeq;
+        private final int prefix, suffix;
+        private final Matches matches;
+        private final Deque<Edit> ready = new ArrayDeque<>();
+        // Next unmatched positions, and the match read ahead (row -1 if none)
+        private int row, col, nextRow = -1, nextCol;
+        private boolean done;
+
+        EditIterator (int[] rSeq, int[] cSeq) {
+            this.rSeq = rSeq;
+            this.cSeq = cSeq;
+            prefix = LCS.commonPrefix(rSeq, 0, rSeq.length, cSeq, 0, cSeq.length);
+            suffix = LCS.commonSuffix(rSeq, prefix, rSeq.length, cSeq, prefix, cSeq.length);
+            int rTo = rSeq.length - suffix, cTo = cSeq.length - suffix;
+            long matchCount = LCS.matchCount(slice(rSeq, prefix, rTo), slice(cSeq, prefix, cTo));
+            matches = LCS.isSparse(matchCount, rTo - prefix, cTo - prefix, 1)
+                ? new SparseMatches(rSeq, prefix, rTo, cSeq, prefix, cTo)
+                : new HirschbergMatches(rSeq, prefix, rTo, cSeq, prefix, cTo);
+            if (prefix > 0) {
+                ready.add(new Edit(Op.KEEP, 0, prefix, 0, prefix));
+            }
+            row = col = prefix;
+        }
+
+        @Override
+        public boolean hasNext () {
+            fill();
+            return !ready.isEmpty();
+        }
+
+        @Override
+        public Edit next () {
+            fill();
+            if (ready.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return ready.poll();
+        }
+
+        private void fill () {
+            if (!ready.isEmpty() || done) {
+                return;
+            }
+            int[] match = new int[2];
+            if (nextRow < 0 && matches.next(match)) {
+                nextRow = match[0];
+                nextCol = match[1];
+            }
+            // Gaps up to the next match, or to the trimmed suffix
+            int rGapEnd = (nextRow >= 0) ? nextRow : rSeq.length - suffix,
+                cGapEnd = (nextRow >= 0) ? nextCol : cSeq.length - suffix;
+            if (rGapEnd > row) {
+                ready.add(new Edit(Op.DELETE, row, rGapEnd, col, col));
+            }
+            if (cGapEnd > col) {
+                ready.add(new Edit(Op.INSERT, rGapEnd, rGapEnd, col, cGapEnd));
+            }
+            row = rGapEnd;
+            col = cGapEnd;
+
+            if (nextRow < 0) {
+                if (suffix > 0) {
+                    ready.add(new Edit(Op.KEEP, row, row + suffix, col, col + suffix));
+                }
+                done = true;
+                return;
+            }
+            // Extend the KEEP run over consecutive matches
+            int length = 0;
+            do {
+                length++;
+                nextRow = -1;
+                if (matches.next(match)) {
+                    nextRow = match[0];
+                    nextCol = match[1];
+                }
+            } while (nextRow == row + length && nextCol == col + length);
+            ready.add(new Edit(Op.KEEP, row, row + length, col, col + length));
+            row += length;
+            col += length;
+        }
+    }
+
+    /**
+     * Source of the (row, col) matches of one LCS, in increasing order
+     */
+    private interface Matches {
+        /**
+         * @param match [Side Effect] receives the next match's row and col
+         * @return false once every match has been read
+         */
+        boolean next (int[] match);
+    }
+
+    private static class SparseMatches implements Matches {
+        private final int[] pairs;
+        private final int rFrom, cFrom;
+        private int index;
+
+        SparseMatches (int[] rSeq, int rFrom, int rTo, int[] cSeq, int cFrom, int cTo) {
+            pairs = LCS.huntSzymanskiMatches(slice(rSeq, rFrom, rTo), slice(cSeq, cFrom, cTo));
+            this.rFrom = rFrom;
+            this.cFrom = cFrom;
+        }
+
+        @Override
+        public boolean next (int[] match) {
+            if (index == pairs.length) {
+                return false;
+            }
+            match[0] = rFrom + pairs[index++];
+            match[1] = cFrom + pairs[index++];
+            return true;
+        }
+    }
+
+    /**
+     * Hirschberg's recursion with an explicit stack of pending subproblems
+     * (rFrom, rTo, cFrom, cTo), the leftmost on top; a subproblem with no
+     * rows left to split yields its match, if any, directly.
+     */
+    private static class HirschbergMatches implements Matches {
+        private final int[] rSeq, cSeq;
+        private final Deque<int[]> pending = new ArrayDeque<>();
+        // Matches found but not yet read: a diagonal run of runLength matches
+        private int runRow, runCol, runLength;
+
+        HirschbergMatches (int[] rSeq, int rFrom, int rTo, int[] cSeq, int cFrom, int cTo) {
+            this.rSeq = rSeq;
+            this.cSeq = cSeq;
+            pending.push(new int[] {rFrom, rTo, cFrom, cTo});
+        }
+
+        @Override
+        public boolean next (int[] match) {
+            while (runLength == 0) {
+                if (pending.isEmpty()) {
+                    return false;
+                }
+                split(pending.pop());
+            }
+            match[0] = runRow++;
+            match[1] = runCol++;
+            runLength--;
+            return true;
+        }
+
+        private void split (int[] range) {
+            int rFrom = range[0], rTo = range[1], cFrom = range[2], cTo = range[3];
+            // Trim each subproblem too: its common prefix is its leftmost run
+            int prefix = LCS.commonPrefix(rSeq, rFrom, rTo, cSeq, cFrom, cTo);
+            if (prefix > 0) {
+                runRow = rFrom;
+                runCol = cFrom;
+                runLength = prefix;
+                pending.push(new int[] {rFrom + prefix, rTo, cFrom + prefix, cTo});
+                return;
+            }
+            if (rFrom == rTo || cFrom == cTo) {
+                return;
+            }
+            if (rTo - rFrom == 1) {
+                for (int col = cFrom; col < cTo; col++) {
+                    if (cSeq[col] == rSeq[rFrom]) {
+                        runRow = rFrom;
+                        runCol = col;
+                        runLength = 1;
+                        return;
+                    }
+                }
+                return;
+            }
+
+            int rMid = (rFrom + rTo) >>> 1;
+            int[] top = LCS.lastRow(rSeq, rFrom, rMid, cSeq, cFrom, cTo),
+                  bottom = LCS.firstRowReversed(rSeq, rMid, rTo, cSeq, cFrom, cTo);
+            int split = 0;
+            for (int col = 1; col < top.length; col++) {
+                if (top[col] + bottom[col] > top[split] + bottom[split]) {
+                    split = col;
+                }
+            }
+            pending.push(new int[] {rMid, rTo, cFrom + split, cTo});
+            pending.push(new int[] {rFrom, rMid, cFrom, cFrom + split});
+        }
+    }
+
+    private static int[] slice (int[] seq, int from, int to) {
+        return (from == 0 && to == seq.length) ? seq : Arrays.copyOfRange(seq, from, to);
+    }
+
+}
@@ -1,7 +1,15 @@
 package lcs;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntBinaryOperator;
 
 public class LCS {
 
@@ -17,42 +25,6 @@ public class LCS {
     // -----------------------------------------------
 
     // [!] TODO: Add your shared helper methods here!
-    public static Set<String> collectSolution(String rStr, int row, String cStr, int col, Set<String> result) {
-        if (row == 0 || col == 0) {
-            return result;
-        }
-
-        char rLetter = rStr.charAt(row - 1), 
-             cLetter = cStr.charAt(col - 1);
-
-        if (rLetter == cLetter) {
-            result = addLetter(Character.toString(cLetter), collectSolution(rStr, row - 1, cStr, col - 1, result));
-            return result;
-        } else {
-            Set<String> leftResult = new HashSet<String>();
-            Set<String> upResult = new HashSet<String>();
-            if (memoCheck[row][col] >= memoCheck[row - 1][col]) {
-                leftResult.addAll(collectSolution(rStr, row - 1, cStr, col, result));
-            }
-
-            if (memoCheck[row][col] >= memoCheck[row][col - 1]) {
-                upResult.addAll(collectSolution(rStr, row, cStr, col - 1, result));
-            }
-            
-            leftResult.addAll(upResult);
-            return leftResult;
-        }
-    }
-    
-    public static Set<String> addLetter(String letter, Set<String> collected) {
-        HashSet<String> result = new HashSet<String>();
-        for (String s : collected) {
-            result.add(s + letter);
-        }
-        
-        return result;
-    }
-
     public static void createMemo(String rStr, String cStr) {
         memoCheck = new int[rStr.length() + 1][cStr.length() + 1];
 
@@ -80,6 +52,18 @@ public class LCS {
      *         sets memoCheck to refer to table
      */
     public static Set<String> bottomUpLCS(String rStr, String cStr) {
+        return bottomUpLCS(rStr, cStr, false);
+    }
+
+    /**
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @param parallel Whether to fill the table as a parallel wavefront (see
+     *        evaluateCellsWavefront); memoCheck is the same either way
+     * @return The longest common subsequence between rStr and cStr + [Side Effect]
+     *         sets memoCheck to refer to table
+     */
+    public static Set<String> bottomUpLCS(String rStr, String cStr, boolean parallel) {
         Set<String> result = new HashSet<String>();
         result.add("");
         if (rStr.length() == 0 || cStr.length() == 0) {
@@ -87,17 +71,35 @@ public class LCS {
         }
 
         createMemo(rStr, cStr);
-        evaluateCellsBottomUp(rStr, cStr);
-        result = collectSolution(rStr, rStr.length(), cStr, cStr.length(), result);
-
+        if (parallel) {
+            evaluateCellsWavefront(rStr, cStr);
+        } else {
+            evaluateCellsBottomUp(rStr, cStr);
+        }
+        // memoCheck is the prefix table of rStr and cStr, which is the suffix
+        // table of both read backwards: list their LCSs off it and reverse them
+        // back, rather than have allLCS build a second table
+        int[][] table = memoCheck;
+        return lcsFromPrefixLengths(rStr, cStr, (row, col) -> table[row][col]);
+    }
 
+    /**
+     * @param prefixLength The LCS length of rStr[0, row) and cStr[0, col)
+     * @return The longest common subsequences between rStr and cStr, listed
+     *         over the reversed Strings and reversed back
+     */
+    private static Set<String> lcsFromPrefixLengths(String rStr, String cStr, IntBinaryOperator prefixLength) {
+        Set<String> result = new HashSet<String>();
+        for (String reversed : LCSDag.reversed(rStr, cStr, prefixLength)) {
+            result.add(new StringBuilder(reversed).reverse().toString());
+        }
         return result;
     }
 
     // [!] TODO: Add any bottom-up specific helpers here!
     public static void evaluateCellsBottomUp(String rStr, String cStr) {
-        for (int col = 1; col < rStr.length() + 1; col++) {
-            for (int row = 1; row < cStr.length() + 1; row++) {
+        for (int col = 1; col < cStr.length() + 1; col++) {
+            for (int row = 1; row < rStr.length() + 1; row++) {
                 char rLetter = rStr.charAt(row - 1), cLetter = cStr.charAt(col - 1);
                 if (rLetter != cLetter) {
                     memoCheck[row][col] = Math.max(memoCheck[row - 1][col], memoCheck[row][col - 1]);
@@ -108,6 +110,73 @@ public class LCS {
         }
     }
 
+    /**
+     * Side length of the square tiles of the wavefront: a 256 x 256 tile of
+     * ints fits in a typical per-core L2 cache
+     */
+    private static final int TILE = 256;
+
+    /**
+     * Parallel version of evaluateCellsBottomUp, filling memoCheck with the
+     * same values. A cell depends only on its up, left and up-left neighbours,
+     * so all cells on one anti-diagonal are independent; the table is cut into
+     * TILE x TILE tiles and the tiles of each anti-diagonal of tiles are
+     * filled concurrently on the common ForkJoinPool, each tile row by row.
+     * Small tables are filled sequentially.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     */
+    public static void evaluateCellsWavefront(String rStr, String cStr) {
+        if ((long) rStr.length() * cStr.length() < PARALLEL_CUTOFF) {
+            evaluateCellsBottomUp(rStr, cStr);
+            return;
+        }
+        int[][] table = memoCheck;
+        int tileRows = (rStr.length() + TILE - 1) / TILE, tileCols = (cStr.length() + TILE - 1) / TILE;
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                for (int diagonal = 0; diagonal < tileRows + tileCols - 1; diagonal++) {
+                    List<RecursiveAction> tiles = new ArrayList<RecursiveAction>();
+                    for (int tr = Math.max(0, diagonal - tileCols + 1); tr <= Math.min(diagonal, tileRows - 1); tr++) {
+                        int tileRow = tr, tileCol = diagonal - tr;
+                        tiles.add(new RecursiveAction() {
+                            private static final long serialVersionUID = 1L;
+
+                            @Override
+                            protected void compute() {
+                                evaluateTile(table, rStr, tileRow * TILE, cStr, tileCol * TILE);
+                            }
+                        });
+                    }
+                    invokeAll(tiles);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fills the TILE x TILE tile of table whose first (0-based) String indices
+     * are rFrom and cFrom, given that the tiles above and to the left are done.
+     */
+    private static void evaluateTile(int[][] table, String rStr, int rFrom, String cStr, int cFrom) {
+        int rTo = Math.min(rFrom + TILE, rStr.length()), cTo = Math.min(cFrom + TILE, cStr.length());
+        for (int row = rFrom + 1; row <= rTo; row++) {
+            char rLetter = rStr.charAt(row - 1);
+            int[] above = table[row - 1], current = table[row];
+            for (int col = cFrom + 1; col <= cTo; col++) {
+                if (rLetter != cStr.charAt(col - 1)) {
+                    current[col] = Math.max(above[col], current[col - 1]);
+                } else {
+                    current[col] = above[col - 1] + 1;
+                }
+            }
+        }
+    }
+
     // -----------------------------------------------
     // Top-Down LCS
     // -----------------------------------------------
@@ -115,7 +184,8 @@ public class LCS {
     /**
      * Top-down dynamic programming approach to the LCS problem, which solves
      * smaller and smaller subproblems recursively using a tabular memoization
-     * structure.
+     * structure. The recursion runs on an explicit stack (see
+     * fillTDTableIteratively), so long Strings do not overflow the call stack.
      * 
      * @param rStr The String found along the table's rows
      * @param cStr The String found along the table's cols
@@ -130,11 +200,39 @@ public class LCS {
              return result;
          }
          
-    	boolean[][] haveVisited = new boolean[rStr.length() + 1][cStr.length() + 1];
-    	memoCheck = new int[rStr.length() + 1][cStr.length() + 1];
-    	fillTDTable(memoCheck, haveVisited,rStr, rStr.length(), cStr, cStr.length());
-    	result = collectSolution(rStr, rStr.length(), cStr, cStr.length(), result);
-    	return result;
+    	TableMemo memo = fillTopDownMemo(rStr, cStr);
+    	// The LCSs are listed off the cells the recursion reached, as in
+    	// bottomUpLCS; the few other cells the listing asks for are evaluated
+    	// the same way into a hashed overlay, leaving memoCheck as it was filled
+    	TDMemo overlay = new OverlayMemo(memo);
+    	return lcsFromPrefixLengths(rStr, cStr,
+    	                            (row, col) -> fillTDTableIteratively(overlay, rStr, cStr, row, col));
+    }
+
+    /**
+     * Sets memoCheck to the top-down table of rStr and cStr: the cells the
+     * recursion reaches, with 0 in every other cell.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return The length of the longest common subsequence between rStr and cStr
+     */
+    public static int evaluateCellsTopDown(String rStr, String cStr) {
+        return fillTopDownMemo(rStr, cStr).get(rStr.length(), cStr.length());
+    }
+
+    /**
+     * Sets memoCheck to a new table and fills it top-down, as
+     * evaluateCellsTopDown
+     * 
+     * @return The memo over memoCheck, which still tells the reached cells
+     *         from the skipped ones
+     */
+    private static TableMemo fillTopDownMemo(String rStr, String cStr) {
+        TableMemo memo = new TableMemo(rStr.length() + 1, cStr.length() + 1);
+        memoCheck = memo.table;
+        fillTDTableIteratively(memo, rStr, cStr);
+        return memo;
     }
     
     public static int fillTDTable(int[][] table, boolean[][] haveVisited, String rStr, int row, String cStr, int column) {
@@ -153,4 +251,838 @@ public class LCS {
     		return table[row][column];
     }
 
+    /**
+     * Marks a cell of a top-down memo that has not been evaluated yet
+     */
+    public static final int UNVISITED = -1;
+
+    /**
+     * Memoized cells of the top-down table; absent cells read UNVISITED
+     */
+    private interface TDMemo {
+        int get(int row, int col);
+        void set(int row, int col, int value);
+    }
+
+    /**
+     * Dense memo: a full table, whose unreached cells keep their default 0,
+     * plus one visited bit per cell (1/32 of the table's size) in place of a
+     * boolean haveVisited table or an UNVISITED fill and clean-up pass
+     */
+    private static class TableMemo implements TDMemo {
+        private final int[][] table;
+        private final long[] visited;
+        private final int width;
+
+        TableMemo(int rows, int cols) {
+            table = new int[rows][cols];
+            visited = new long[(int) (((long) rows * cols + 63) >>> 6)];
+            width = cols;
+        }
+
+        public int get(int row, int col) {
+            long bit = (long) row * width + col;
+            return ((visited[(int) (bit >>> 6)] & (1L << bit)) != 0) ? table[row][col] : UNVISITED;
+        }
+
+        public void set(int row, int col, int value) {
+            long bit = (long) row * width + col;
+            visited[(int) (bit >>> 6)] |= 1L << bit;
+            table[row][col] = value;
+        }
+    }
+
+    /**
+     * Sparse memo: only the cells the top-down evaluation reaches, hashed
+     * on (row, col)
+     */
+    private static class HashMemo implements TDMemo {
+        private final Map<Long, Integer> cells = new HashMap<Long, Integer>();
+
+        public int get(int row, int col) {
+            Integer value = cells.get(((long) row << 32) | col);
+            return (value == null) ? UNVISITED : value;
+        }
+
+        public void set(int row, int col, int value) {
+            cells.put(((long) row << 32) | col, value);
+        }
+    }
+
+    /**
+     * Cells of a filled memo, plus any others evaluated later, which are kept
+     * in a hash map rather than written into the filled memo
+     */
+    private static class OverlayMemo implements TDMemo {
+        private final TDMemo filled;
+        private final HashMemo extra = new HashMemo();
+
+        OverlayMemo(TDMemo filled) {
+            this.filled = filled;
+        }
+
+        public int get(int row, int col) {
+            int value = filled.get(row, col);
+            return (value != UNVISITED) ? value : extra.get(row, col);
+        }
+
+        public void set(int row, int col, int value) {
+            extra.set(row, col, value);
+        }
+    }
+
+    /**
+     * Same evaluation as fillTDTable, visiting the same cells, but with an
+     * explicit stack instead of recursion, so its depth is not limited by the
+     * thread's stack: a cell stays on the stack until the cells it depends on
+     * are memoized, then is evaluated from them.
+     * 
+     * @param memo [Side Effect] receives the value of every reachable cell
+     * @return The LCS length of rStr and cStr
+     */
+    private static int fillTDTableIteratively(TDMemo memo, String rStr, String cStr) {
+        return fillTDTableIteratively(memo, rStr, cStr, rStr.length(), cStr.length());
+    }
+
+    /**
+     * fillTDTableIteratively from the cell (startRow, startCol) instead of the
+     * last one
+     * 
+     * @return The LCS length of rStr[0, startRow) and cStr[0, startCol)
+     */
+    private static int fillTDTableIteratively(TDMemo memo, String rStr, String cStr, int startRow, int startCol) {
+        if (startRow == 0 || startCol == 0) {
+            return 0;
+        }
+        int known = memo.get(startRow, startCol);
+        if (known != UNVISITED) {
+            return known;
+        }
+        // Cells as (row, col) pairs
+        int[] stack = new int[64];
+        int size = 0;
+        stack[size++] = startRow;
+        stack[size++] = startCol;
+        while (size > 0) {
+            int row = stack[size - 2], col = stack[size - 1];
+            if (memo.get(row, col) != UNVISITED) {
+                size -= 2;
+                continue;
+            }
+            if (stack.length - size < 4) {
+                stack = Arrays.copyOf(stack, 2 * stack.length);
+            }
+            if (rStr.charAt(row - 1) == cStr.charAt(col - 1)) {
+                int diagonal = (row == 1 || col == 1) ? 0 : memo.get(row - 1, col - 1);
+                if (diagonal == UNVISITED) {
+                    stack[size++] = row - 1;
+                    stack[size++] = col - 1;
+                    continue;
+                }
+                memo.set(row, col, diagonal + 1);
+            } else {
+                int up = (row == 1) ? 0 : memo.get(row - 1, col),
+                    left = (col == 1) ? 0 : memo.get(row, col - 1);
+                if (left == UNVISITED) {
+                    stack[size++] = row;
+                    stack[size++] = col - 1;
+                }
+                if (up == UNVISITED) {
+                    stack[size++] = row - 1;
+                    stack[size++] = col;
+                }
+                if (up == UNVISITED || left == UNVISITED) {
+                    continue;
+                }
+                memo.set(row, col, Math.max(up, left));
+            }
+            size -= 2;
+        }
+        return memo.get(startRow, startCol);
+    }
+
+    /**
+     * Top-down LCS length that memoizes only the cells it reaches, in a hash
+     * map instead of a full table. Matching letters lead straight up the
+     * diagonal, so Strings that agree over long runs toward their ends reach
+     * far fewer than m * n cells (only the diagonal for equal Strings); each
+     * mismatch, though, can open up much of the rectangle before it.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return The length of the longest common subsequence between rStr and cStr;
+     *         memoCheck is left unchanged
+     */
+    public static int sparseTopDownLength(String rStr, String cStr) {
+        return fillTDTableIteratively(new HashMemo(), rStr, cStr);
+    }
+
+    // -----------------------------------------------
+    // Linear-Space LCS Length
+    // -----------------------------------------------
+
+    /**
+     * Length of the longest common subsequence in O(min(m, n)) memory: the
+     * bottom-up table is evaluated one row at a time over the shorter String,
+     * keeping only the current row plus the diagonal cell from the row above.
+     * Use bottomUpLCS or topDownLCS when the subsequences (and memoCheck) are
+     * needed.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return The length of the longest common subsequence between rStr and cStr;
+     *         memoCheck is left unchanged
+     */
+    public static int lcsLength(String rStr, String cStr) {
+        if (cStr.length() > rStr.length()) {
+            String swapped = rStr;
+            rStr = cStr;
+            cStr = swapped;
+        }
+        return lastRow(rStr, 0, rStr.length(), cStr, 0, cStr.length())[cStr.length()];
+    }
+
+    /**
+     * Evaluates the bottom-up table of rStr[rFrom, rTo) against cStr[cFrom, cTo)
+     * one row at a time.
+     * 
+     * @return The table's last row, i.e., the LCS length of all of
+     *         rStr[rFrom, rTo) against each prefix cStr[cFrom, cFrom + j)
+     */
+    public static int[] lastRow(String rStr, int rFrom, int rTo, String cStr, int cFrom, int cTo) {
+        int[] row = new int[cTo - cFrom + 1];
+        for (int r = rFrom; r < rTo; r++) {
+            char rLetter = rStr.charAt(r);
+            int diagonal = 0;
+            for (int col = 1; col < row.length; col++) {
+                int up = row[col];
+                if (rLetter == cStr.charAt(cFrom + col - 1)) {
+                    row[col] = diagonal + 1;
+                } else if (row[col - 1] > up) {
+                    row[col] = row[col - 1];
+                }
+                diagonal = up;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Mirror image of lastRow: evaluates the table of the reversed substrings.
+     * 
+     * @return The row whose entry j is the LCS length of all of rStr[rFrom, rTo)
+     *         against the suffix cStr[cFrom + j, cTo)
+     */
+    public static int[] firstRowReversed(String rStr, int rFrom, int rTo, String cStr, int cFrom, int cTo) {
+        int[] row = new int[cTo - cFrom + 1];
+        for (int r = rTo - 1; r >= rFrom; r--) {
+            char rLetter = rStr.charAt(r);
+            int diagonal = 0;
+            for (int col = row.length - 2; col >= 0; col--) {
+                int down = row[col];
+                if (rLetter == cStr.charAt(cFrom + col)) {
+                    row[col] = diagonal + 1;
+                } else if (row[col + 1] > down) {
+                    row[col] = row[col + 1];
+                }
+                diagonal = down;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * lcsLength over sequences of int symbols, e.g., interned lines or tokens
+     * 
+     * @param rSeq The sequence found along the table's rows
+     * @param cSeq The sequence found along the table's cols
+     * @return The length of the longest common subsequence between rSeq and cSeq
+     */
+    public static int lcsLength(int[] rSeq, int[] cSeq) {
+        if (cSeq.length > rSeq.length) {
+            int[] swapped = rSeq;
+            rSeq = cSeq;
+            cSeq = swapped;
+        }
+        return lastRow(rSeq, 0, rSeq.length, cSeq, 0, cSeq.length)[cSeq.length];
+    }
+
+    /**
+     * lastRow over sequences of int symbols
+     */
+    public static int[] lastRow(int[] rSeq, int rFrom, int rTo, int[] cSeq, int cFrom, int cTo) {
+        int[] row = new int[cTo - cFrom + 1];
+        for (int r = rFrom; r < rTo; r++) {
+            int rSymbol = rSeq[r];
+            int diagonal = 0;
+            for (int col = 1; col < row.length; col++) {
+                int up = row[col];
+                if (rSymbol == cSeq[cFrom + col - 1]) {
+                    row[col] = diagonal + 1;
+                } else if (row[col - 1] > up) {
+                    row[col] = row[col - 1];
+                }
+                diagonal = up;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * firstRowReversed over sequences of int symbols
+     */
+    public static int[] firstRowReversed(int[] rSeq, int rFrom, int rTo, int[] cSeq, int cFrom, int cTo) {
+        int[] row = new int[cTo - cFrom + 1];
+        for (int r = rTo - 1; r >= rFrom; r--) {
+            int rSymbol = rSeq[r];
+            int diagonal = 0;
+            for (int col = row.length - 2; col >= 0; col--) {
+                int down = row[col];
+                if (rSymbol == cSeq[cFrom + col]) {
+                    row[col] = diagonal + 1;
+                } else if (row[col + 1] > down) {
+                    row[col] = row[col + 1];
+                }
+                diagonal = down;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @return The length of the longest common prefix of rSeq[rFrom, rTo) and
+     *         cSeq[cFrom, cTo)
+     */
+    public static int commonPrefix(int[] rSeq, int rFrom, int rTo, int[] cSeq, int cFrom, int cTo) {
+        int length = 0, limit = Math.min(rTo - rFrom, cTo - cFrom);
+        while (length < limit && rSeq[rFrom + length] == cSeq[cFrom + length]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @return The length of the longest common suffix of rSeq[rFrom, rTo) and
+     *         cSeq[cFrom, cTo)
+     */
+    public static int commonSuffix(int[] rSeq, int rFrom, int rTo, int[] cSeq, int cFrom, int cTo) {
+        int length = 0, limit = Math.min(rTo - rFrom, cTo - cFrom);
+        while (length < limit && rSeq[rTo - 1 - length] == cSeq[cTo - 1 - length]) {
+            length++;
+        }
+        return length;
+    }
+
+    // -----------------------------------------------
+    // Hirschberg (Linear-Space) LCS
+    // -----------------------------------------------
+
+    /**
+     * Subproblems with fewer table cells than this are not worth forking
+     */
+    private static final long PARALLEL_CUTOFF = 1L << 20;
+
+    /**
+     * Hirschberg's divide-and-conquer reconstruction of one longest common
+     * subsequence in O(m * n) time and O(m + n) memory: the middle row of rStr
+     * is matched to the column of cStr where the forward lastRow of the top half
+     * and the firstRowReversed of the bottom half sum to the LCS length, and
+     * the two halves on either side of that split are solved independently.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return One longest common subsequence between rStr and cStr; memoCheck
+     *         is left unchanged
+     */
+    public static String hirschbergLCS(String rStr, String cStr) {
+        return hirschbergLCS(rStr, cStr, false);
+    }
+
+    /**
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @param parallel Whether to solve the two halves of large subproblems
+     *        concurrently on the common ForkJoinPool
+     * @return One longest common subsequence between rStr and cStr, the same
+     *         one for either value of parallel
+     */
+    public static String hirschbergLCS(String rStr, String cStr, boolean parallel) {
+        Hirschberg root = new Hirschberg(rStr, 0, rStr.length(), cStr, 0, cStr.length(), null, 0, parallel);
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(root);
+        } else {
+            root.compute();
+        }
+        return new String(root.result);
+    }
+
+    /**
+     * Writes one LCS of rStr[rFrom, rTo) and cStr[cFrom, cTo) into
+     * result[offset, ...); halves write disjoint ranges, so they can run
+     * concurrently. The root is given no result array: it allocates one once
+     * its own split has found the LCS length, instead of a separate length
+     * pass over the whole table.
+     */
+    private static class Hirschberg extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String rStr, cStr;
+        private final int rFrom, rTo, cFrom, cTo, offset;
+        private final boolean parallel;
+        private char[] result;
+
+        Hirschberg(String rStr, int rFrom, int rTo, String cStr, int cFrom, int cTo, char[] result, int offset, boolean parallel) {
+            this.rStr = rStr;
+            this.rFrom = rFrom;
+            this.rTo = rTo;
+            this.cStr = cStr;
+            this.cFrom = cFrom;
+            this.cTo = cTo;
+            this.result = result;
+            this.offset = offset;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected void compute() {
+            if (rFrom == rTo || cFrom == cTo) {
+                allocate(0);
+                return;
+            }
+            if (rTo - rFrom == 1) {
+                char rLetter = rStr.charAt(rFrom);
+                for (int col = cFrom; col < cTo; col++) {
+                    if (cStr.charAt(col) == rLetter) {
+                        allocate(1);
+                        result[offset] = rLetter;
+                        return;
+                    }
+                }
+                allocate(0);
+                return;
+            }
+
+            int rMid = (rFrom + rTo) >>> 1;
+            int[] top = lastRow(rStr, rFrom, rMid, cStr, cFrom, cTo),
+                  bottom = firstRowReversed(rStr, rMid, rTo, cStr, cFrom, cTo);
+            int split = 0;
+            for (int col = 1; col < top.length; col++) {
+                if (top[col] + bottom[col] > top[split] + bottom[split]) {
+                    split = col;
+                }
+            }
+            allocate(top[split] + bottom[split]);
+
+            Hirschberg first = new Hirschberg(rStr, rFrom, rMid, cStr, cFrom, cFrom + split, result, offset, parallel),
+                       second = new Hirschberg(rStr, rMid, rTo, cStr, cFrom + split, cTo, result, offset + top[split], parallel);
+            if (parallel && (long) (rTo - rFrom) * (cTo - cFrom) >= PARALLEL_CUTOFF) {
+                invokeAll(first, second);
+            } else {
+                first.compute();
+                second.compute();
+            }
+        }
+
+        private void allocate(int length) {
+            if (result == null) {
+                result = new char[length];
+            }
+        }
+    }
+
+    // -----------------------------------------------
+    // Bit-Parallel LCS Length
+    // -----------------------------------------------
+
+    /**
+     * Length of the longest common subsequence by the bit-vector algorithm of
+     * Allison-Dix / Hyyro: one bit per column of the shorter String, so each
+     * row of the bottom-up table is advanced 64 columns per word operation.
+     * Bit j of the vector V is 0 iff the table's row value increases at column
+     * j, so the LCS length is the number of 0 bits once every row is processed.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return The length of the longest common subsequence between rStr and cStr;
+     *         memoCheck is left unchanged
+     */
+    public static int bitParallelLength(String rStr, String cStr) {
+        if (cStr.length() > rStr.length()) {
+            String swapped = rStr;
+            rStr = cStr;
+            cStr = swapped;
+        }
+        int n = cStr.length();
+        if (n == 0) {
+            return 0;
+        }
+        return bitParallelLength(rStr, new MatchMasks(cStr), new long[(n + 63) >>> 6], 0);
+    }
+
+    /**
+     * bitParallelLength against precomputed masks, for comparing one String
+     * with many: gives up as soon as the rows left cannot lift the length to
+     * minLength.
+     * 
+     * @param masks MatchMasks of the String along the cols, of length n
+     * @param v [Side Effect] reused as the bit vector; at least (n + 63) / 64 words
+     * @param minLength Length below which the exact value is not needed
+     * @return The LCS length, or -1 if it is below minLength
+     */
+    static int bitParallelLength(String rStr, MatchMasks masks, long[] v, int minLength) {
+        int n = masks.length;
+        if (Math.min(rStr.length(), n) < minLength) {
+            return -1;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        int words = (n + 63) >>> 6;
+        Arrays.fill(v, 0, words, -1L);
+        for (int r = 0; r < rStr.length(); r++) {
+            // Every 64 rows, check whether minLength can still be reached
+            if (minLength > 0 && (r & 63) == 63 && zeros(v, n) + rStr.length() - r < minLength) {
+                return -1;
+            }
+            long[] mask = masks.of(rStr.charAt(r));
+            if (mask == null) {
+                continue;
+            }
+            // V = (V + U) | (V - U) with U = V & M, carrying across words
+            long carry = 0;
+            for (int k = 0; k < words; k++) {
+                long vk = v[k], u = vk & mask[k];
+                long sum = vk + u;
+                long nextCarry = (Long.compareUnsigned(sum, vk) < 0) ? 1 : 0;
+                sum += carry;
+                if (sum == 0 && carry == 1) {
+                    nextCarry = 1;
+                }
+                v[k] = sum | (vk - u);
+                carry = nextCarry;
+            }
+        }
+        int length = zeros(v, n);
+        return (length < minLength) ? -1 : length;
+    }
+
+    /**
+     * @return The number of 0 bits among the first n bits of v, i.e., the LCS
+     *         length of the rows processed so far
+     */
+    private static int zeros(long[] v, int n) {
+        int words = (n + 63) >>> 6, ones = 0;
+        for (int k = 0; k < words; k++) {
+            long word = v[k];
+            if (k == words - 1 && (n & 63) != 0) {
+                word &= (1L << (n & 63)) - 1;
+            }
+            ones += Long.bitCount(word);
+        }
+        return n - ones;
+    }
+
+    /**
+     * For each letter of a String, a bit vector with bit j set iff the
+     * String's j-th char is that letter. Letters are remapped to dense ids
+     * through a table spanning the String's lowest to highest char, so each
+     * row of bitParallelLength finds its mask with two array reads instead of
+     * boxing its char for a hash lookup.
+     */
+    static class MatchMasks {
+        final int length;
+        private final char lowest;
+        private final int[] ids;
+        private final long[][] masks;
+
+        MatchMasks(String str) {
+            length = str.length();
+            char low = Character.MAX_VALUE, high = 0;
+            for (int j = 0; j < length; j++) {
+                low = (char) Math.min(low, str.charAt(j));
+                high = (char) Math.max(high, str.charAt(j));
+            }
+            lowest = (length == 0) ? 0 : low;
+            ids = new int[(length == 0) ? 0 : high - low + 1];
+            Arrays.fill(ids, -1);
+            int words = (length + 63) >>> 6, letters = 0;
+            long[][] found = new long[Math.min(length, ids.length)][];
+            for (int j = 0; j < length; j++) {
+                int slot = str.charAt(j) - lowest;
+                if (ids[slot] < 0) {
+                    ids[slot] = letters;
+                    found[letters++] = new long[words];
+                }
+                found[ids[slot]][j >>> 6] |= 1L << (j & 63);
+            }
+            masks = Arrays.copyOf(found, letters);
+        }
+
+        /**
+         * @return The mask of letter, or null if the String does not have it
+         */
+        long[] of(char letter) {
+            int slot = letter - lowest;
+            if (slot < 0 || slot >= ids.length || ids[slot] < 0) {
+                return null;
+            }
+            return masks[ids[slot]];
+        }
+    }
+
+    // -----------------------------------------------
+    // Enumerating All LCS
+    // -----------------------------------------------
+
+    /**
+     * Distinct longest common subsequences, read off an LCSDag so that shared
+     * tails are built once; see LCSDag for counting them or streaming them
+     * lazily.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @param limit The most subsequences to return
+     * @return The first (in lexicographic order) limit longest common
+     *         subsequences between rStr and cStr; memoCheck is left unchanged
+     */
+    public static Set<String> allLCS(String rStr, String cStr, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Invalid limit");
+        }
+        Set<String> result = new HashSet<String>();
+        for (String lcs : new LCSDag(rStr, cStr)) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(lcs);
+        }
+        return result;
+    }
+
+    // -----------------------------------------------
+    // Hunt-Szymanski (Sparse) LCS
+    // -----------------------------------------------
+
+    /**
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return The number r of matching pairs (row, col), i.e., the number of
+     *         cells where the bottom-up table takes its diagonal; computed in
+     *         O(m + n) from letter counts
+     */
+    public static long matchCount(String rStr, String cStr) {
+        return matchCount(codes(rStr), codes(cStr));
+    }
+
+    /**
+     * matchCount over sequences of int symbols
+     */
+    public static long matchCount(int[] rSeq, int[] cSeq) {
+        Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+        for (int symbol : cSeq) {
+            counts.merge(symbol, 1, Integer::sum);
+        }
+        long matches = 0;
+        for (int symbol : rSeq) {
+            matches += counts.getOrDefault(symbol, 0);
+        }
+        return matches;
+    }
+
+    /**
+     * Hunt-Szymanski LCS over the matching pairs only, in O((r + m) log n)
+     * time for r matches: thresholds[k] holds the smallest col at which a
+     * common subsequence of length k + 1 can end among the rows seen so far,
+     * and each match of the next row lowers one threshold, found by binary
+     * search. Visiting a row's matches from the right keeps two matches in
+     * the same row from extending each other.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return One longest common subsequence between rStr and cStr; memoCheck
+     *         is left unchanged
+     */
+    public static String huntSzymanskiLCS(String rStr, String cStr) {
+        int[] pairs = huntSzymanskiMatches(codes(rStr), codes(cStr));
+        char[] result = new char[pairs.length / 2];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = rStr.charAt(pairs[2 * k]);
+        }
+        return new String(result);
+    }
+
+    /**
+     * @return The length of the longest common subsequence between rStr and
+     *         cStr, by Hunt-Szymanski without keeping the matches to trace back
+     */
+    public static int huntSzymanskiLength(String rStr, String cStr) {
+        return huntSzymanski(codes(rStr), codes(cStr), null);
+    }
+
+    /**
+     * @param rSeq The sequence found along the table's rows
+     * @param cSeq The sequence found along the table's cols
+     * @return The (row, col) index pairs of one longest common subsequence,
+     *         flattened as row0, col0, row1, col1, ... in increasing order
+     */
+    public static int[] huntSzymanskiMatches(int[] rSeq, int[] cSeq) {
+        Match[] links = new Match[Math.min(rSeq.length, cSeq.length)];
+        int length = huntSzymanski(rSeq, cSeq, links);
+        int[] pairs = new int[2 * length];
+        Match match = (length > 0) ? links[length - 1] : null;
+        for (int k = length - 1; k >= 0; k--, match = match.previous) {
+            pairs[2 * k] = match.row;
+            pairs[2 * k + 1] = match.col;
+        }
+        return pairs;
+    }
+
+    /**
+     * One longest common subsequence, by Myers when the Strings are few edits
+     * apart, by Hunt-Szymanski when matches are sparse (r log n below m * n,
+     * as for line-hashed text with its large alphabet), and by hirschbergLCS
+     * otherwise. A common prefix and suffix are trimmed off first, which on
+     * similar Strings leaves little to compare.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return One longest common subsequence between rStr and cStr
+     */
+    public static String lcs(String rStr, String cStr) {
+        int[] rSeq = codes(rStr), cSeq = codes(cStr);
+        int prefix = commonPrefix(rSeq, 0, rSeq.length, cSeq, 0, cSeq.length),
+            suffix = commonSuffix(rSeq, prefix, rSeq.length, cSeq, prefix, cSeq.length);
+        int[] rCore = Arrays.copyOfRange(rSeq, prefix, rSeq.length - suffix),
+              cCore = Arrays.copyOfRange(cSeq, prefix, cSeq.length - suffix);
+        long matches = matchCount(rCore, cCore);
+        String core;
+        int[] pairs = Myers.boundedMatches(rCore, cCore, myersBudget(matches, rCore.length, cCore.length, 1));
+        if (pairs != null) {
+            char[] letters = new char[pairs.length / 2];
+            for (int k = 0; k < letters.length; k++) {
+                letters[k] = (char) rCore[pairs[2 * k]];
+            }
+            core = new String(letters);
+        } else {
+            String rRest = rStr.substring(prefix, rStr.length() - suffix), cRest = cStr.substring(prefix, cStr.length() - suffix);
+            core = isSparse(matches, rCore.length, cCore.length, 1) ? huntSzymanskiLCS(rRest, cRest) : hirschbergLCS(rRest, cRest);
+        }
+        return rStr.substring(0, prefix) + core + rStr.substring(rStr.length() - suffix);
+    }
+
+    /**
+     * LCS length by Myers when the Strings are few edits apart, by
+     * Hunt-Szymanski when matches are sparse enough to beat bitParallelLength's
+     * m * n / 64 word operations, and by bitParallelLength otherwise, after
+     * trimming a common prefix and suffix.
+     * 
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return The length of the longest common subsequence between rStr and cStr
+     */
+    public static int length(String rStr, String cStr) {
+        int[] rSeq = codes(rStr), cSeq = codes(cStr);
+        int prefix = commonPrefix(rSeq, 0, rSeq.length, cSeq, 0, cSeq.length),
+            suffix = commonSuffix(rSeq, prefix, rSeq.length, cSeq, prefix, cSeq.length);
+        int[] rCore = Arrays.copyOfRange(rSeq, prefix, rSeq.length - suffix),
+              cCore = Arrays.copyOfRange(cSeq, prefix, cSeq.length - suffix);
+        long matches = matchCount(rCore, cCore);
+        int distance = Myers.editDistance(rCore, cCore, myersBudget(matches, rCore.length, cCore.length, 64));
+        if (distance >= 0) {
+            return prefix + suffix + (rCore.length + cCore.length - distance) / 2;
+        }
+        String rRest = rStr.substring(prefix, rStr.length() - suffix), cRest = cStr.substring(prefix, cStr.length() - suffix);
+        int core = isSparse(matches, rCore.length, cCore.length, 64)
+            ? huntSzymanskiLength(rRest, cRest)
+            : bitParallelLength(rRest, cRest);
+        return prefix + core + suffix;
+    }
+
+    /**
+     * @return The most edits D worth a bounded Myers search first: its (m + n) D
+     *         steps stay below the cost of the sparse or dense engine otherwise
+     *         chosen, so a failed search at most doubles the work
+     */
+    private static int myersBudget(long matches, int m, int n, int cellsPerStep) {
+        int logN = 64 - Long.numberOfLeadingZeros(n + 1);
+        long cost = Math.min(matches * logN, (long) m * n / cellsPerStep);
+        return (int) Math.min(Integer.MAX_VALUE, cost / (m + n + 1));
+    }
+
+    /**
+     * @return Whether r log n is below m * n / cellsPerStep, i.e., the sparse
+     *         engine does less work than a dense one handling cellsPerStep
+     *         cells per step
+     */
+    static boolean isSparse(long matches, int m, int n, int cellsPerStep) {
+        int logN = 64 - Long.numberOfLeadingZeros(n + 1);
+        return matches * logN < (long) m * n / cellsPerStep;
+    }
+
+    /**
+     * @return The chars of str as int symbols
+     */
+    static int[] codes(String str) {
+        int[] codes = new int[str.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = str.charAt(i);
+        }
+        return codes;
+    }
+
+    /**
+     * Link of the Hunt-Szymanski trace: a match that ends a common
+     * subsequence, and the match before it
+     */
+    private static class Match {
+        final int row, col;
+        final Match previous;
+
+        Match(int row, int col, Match previous) {
+            this.row = row;
+            this.col = col;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * @param links [Side Effect] if not null, links[k] receives the last match
+     *        of a common subsequence of length k + 1
+     * @return The LCS length
+     */
+    private static int huntSzymanski(int[] rSeq, int[] cSeq, Match[] links) {
+        // Columns of each symbol of cSeq, in increasing order
+        Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+        for (int symbol : cSeq) {
+            counts.merge(symbol, 1, Integer::sum);
+        }
+        Map<Integer, int[]> columns = new HashMap<Integer, int[]>();
+        for (int col = cSeq.length - 1; col >= 0; col--) {
+            int[] list = columns.computeIfAbsent(cSeq[col], symbol -> new int[counts.get(symbol)]);
+            list[counts.merge(cSeq[col], -1, Integer::sum)] = col;
+        }
+
+        int[] thresholds = new int[Math.min(rSeq.length, cSeq.length)];
+        int length = 0;
+        for (int row = 0; row < rSeq.length; row++) {
+            int[] list = columns.get(rSeq[row]);
+            if (list == null) { continue; }
+            for (int i = list.length - 1; i >= 0; i--) {
+                int col = list[i];
+                // First k with thresholds[k] >= col
+                int k = Arrays.binarySearch(thresholds, 0, length, col);
+                if (k >= 0) { continue; }
+                k = -k - 1;
+                thresholds[k] = col;
+                if (links != null) {
+                    links[k] = new Match(row, col, (k > 0) ? links[k - 1] : null);
+                }
+                if (k == length) {
+                    length++;
+                }
+            }
+        }
+        return length;
+    }
+
 }
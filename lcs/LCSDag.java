@@ -0,0 +1,295 @@
+package lcs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * LCSDag: every distinct longest common subsequence of two Strings as the
+ * paths of a directed acyclic graph. A node (row, col) stands for the
+ * suffixes rStr[row, ...) and cStr[col, ...); its children are, for each
+ * letter that can come next in an LCS, the node just past the first
+ * occurrence of that letter in both suffixes. Taking first occurrences makes
+ * each distinct LCS exactly one root-to-sink path, so strings are counted
+ * and listed without duplicates, and nodes are memoized on (row, col), so
+ * tie-heavy inputs share their common tails instead of multiplying them.
+ *
+ * Strings are produced lazily, in lexicographic order, each in time
+ * proportional to its length: every path from the root reaches a sink.
+ */
+public class LCSDag implements Iterable<String> {
+
+    /**
+     * One node of the DAG: the suffixes rStr[ROW, ...) and cStr[COL, ...),
+     * entered through the letter rStr.charAt(ROW - 1) (except for the root)
+     */
+    public class Node {
+        public final int ROW, COL;
+        private List<Node> children;
+        private long count = -1;
+
+        private Node (int row, int col) {
+            ROW = row;
+            COL = col;
+        }
+
+        /**
+         * @return The letter added by entering this node
+         */
+        public char letter () {
+            return rStr.charAt(ROW - 1);
+        }
+
+        /**
+         * @return The length of every LCS of this node's suffixes
+         */
+        public int remaining () {
+            return suffixLength(ROW, COL);
+        }
+
+        /**
+         * @return The next nodes of every LCS through this node, in
+         *         increasing order of their letter
+         */
+        public List<Node> children () {
+            if (children == null) {
+                children = expand(this);
+            }
+            return children;
+        }
+    }
+
+    private final String rStr, cStr;
+    // Suffix lengths, or the prefix lengths of the Strings read backwards
+    private final IntBinaryOperator lengths;
+    private final boolean prefixLengths;
+    private final char[] letters;
+    private final int[][] nextInR, nextInC;
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final Node root;
+
+    /**
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     */
+    public LCSDag (String rStr, String cStr) {
+        this(rStr, cStr, lengthsOf(suffixTable(rStr, cStr)), false);
+    }
+
+    /**
+     * The DAG of the Strings read backwards, built on prefix lengths a
+     * dynamic programming fill already computed instead of a second O(m * n)
+     * table: the suffixes of the reversed Strings are the reversed prefixes of
+     * rStr and cStr. Only the reversed Strings can be listed this way, since
+     * listing rStr and cStr's own LCSs from their first letter needs suffix
+     * lengths.
+     * 
+     * @param prefixLength The LCS length of rStr[0, row) and cStr[0, col),
+     *        e.g., read off memoCheck after evaluateCellsBottomUp
+     * @return The DAG whose strings are the LCSs of rStr and cStr, each
+     *         reversed
+     */
+    static LCSDag reversed (String rStr, String cStr, IntBinaryOperator prefixLength) {
+        return new LCSDag(new StringBuilder(rStr).reverse().toString(), new StringBuilder(cStr).reverse().toString(),
+                          prefixLength, true);
+    }
+
+    private LCSDag (String rStr, String cStr, IntBinaryOperator lengths, boolean prefixLengths) {
+        this.rStr = rStr;
+        this.cStr = cStr;
+        this.lengths = lengths;
+        this.prefixLengths = prefixLengths;
+
+        // Only letters found in both Strings can be part of an LCS
+        letters = rStr.chars().distinct().filter(c -> cStr.indexOf(c) >= 0).sorted()
+                      .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                      .toString().toCharArray();
+        nextInR = nextOccurrences(rStr, letters);
+        nextInC = nextOccurrences(cStr, letters);
+        root = node(0, 0);
+    }
+
+    /**
+     * @return The node for the whole of both Strings
+     */
+    public Node root () {
+        return root;
+    }
+
+    /**
+     * @return The length of every longest common subsequence
+     */
+    public int length () {
+        return suffixLength(0, 0);
+    }
+
+    /**
+     * @return The number of distinct longest common subsequences, or
+     *         Long.MAX_VALUE if there are at least that many
+     */
+    public long count () {
+        // Post-order over the DAG, without recursing as deep as the LCS
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.peek();
+            if (node.count >= 0) {
+                stack.pop();
+                continue;
+            }
+            boolean ready = true;
+            for (Node child : node.children()) {
+                if (child.count < 0) {
+                    stack.push(child);
+                    ready = false;
+                }
+            }
+            if (!ready) { continue; }
+            stack.pop();
+            long count = node.children().isEmpty() ? 1 : 0;
+            for (Node child : node.children()) {
+                count = (count > Long.MAX_VALUE - child.count) ? Long.MAX_VALUE : count + child.count;
+            }
+            node.count = count;
+        }
+        return root.count;
+    }
+
+    /**
+     * @return The distinct longest common subsequences, lazily and in
+     *         lexicographic order
+     */
+    @Override
+    public Iterator<String> iterator () {
+        return new Iterator<String>() {
+            // Path from the root; childIndex[d] is the next child to visit
+            // below path[d]
+            private final Node[] path = new Node[length() + 1];
+            private final int[] childIndex = new int[length() + 1];
+            private final char[] chosen = new char[length()];
+            private int depth = 0;
+            private String next;
+
+            {
+                path[0] = root;
+                next = advance();
+            }
+
+            @Override
+            public boolean hasNext () {
+                return next != null;
+            }
+
+            @Override
+            public String next () {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                String result = next;
+                next = advance();
+                return result;
+            }
+
+            private String advance () {
+                while (depth >= 0) {
+                    List<Node> children = path[depth].children();
+                    if (children.isEmpty() && childIndex[depth] == 0) {
+                        childIndex[depth] = 1;
+                        return new String(chosen);
+                    }
+                    if (childIndex[depth] >= children.size()) {
+                        childIndex[depth] = 0;
+                        depth--;
+                        continue;
+                    }
+                    Node child = children.get(childIndex[depth]++);
+                    chosen[depth] = child.letter();
+                    path[++depth] = child;
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * @return The distinct longest common subsequences as a lazy, ordered Stream
+     */
+    public Stream<String> stream () {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL), false);
+    }
+
+
+    // Helper Methods / Classes
+
+    private static int[][] suffixTable (String rStr, String cStr) {
+        int m = rStr.length(), n = cStr.length();
+        int[][] suffixTable = new int[m + 1][n + 1];
+        for (int row = m - 1; row >= 0; row--) {
+            for (int col = n - 1; col >= 0; col--) {
+                suffixTable[row][col] = (rStr.charAt(row) == cStr.charAt(col))
+                    ? suffixTable[row + 1][col + 1] + 1
+                    : Math.max(suffixTable[row + 1][col], suffixTable[row][col + 1]);
+            }
+        }
+        return suffixTable;
+    }
+
+    private static IntBinaryOperator lengthsOf (int[][] table) {
+        return (row, col) -> table[row][col];
+    }
+
+    /**
+     * @return The LCS length of rStr[row, ...) and cStr[col, ...)
+     */
+    private int suffixLength (int row, int col) {
+        return prefixLengths ? lengths.applyAsInt(rStr.length() - row, cStr.length() - col)
+                             : lengths.applyAsInt(row, col);
+    }
+
+    private Node node (int row, int col) {
+        return nodes.computeIfAbsent(((long) row << 32) | col, key -> new Node(row, col));
+    }
+
+    private List<Node> expand (Node node) {
+        int remaining = node.remaining();
+        if (remaining == 0) {
+            return Collections.emptyList();
+        }
+        List<Node> result = new ArrayList<>();
+        for (int k = 0; k < letters.length; k++) {
+            int row = nextInR[k][node.ROW], col = nextInC[k][node.COL];
+            if (row >= 0 && col >= 0 && suffixLength(row + 1, col + 1) == remaining - 1) {
+                result.add(node(row + 1, col + 1));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return For each letter k and position i, the first index at or after i
+     *         where str has letters[k], or -1
+     */
+    private static int[][] nextOccurrences (String str, char[] letters) {
+        int[][] next = new int[letters.length][str.length() + 1];
+        for (int k = 0; k < letters.length; k++) {
+            next[k][str.length()] = -1;
+            for (int i = str.length() - 1; i >= 0; i--) {
+                next[k][i] = (str.charAt(i) == letters[k]) ? i : next[k][i + 1];
+            }
+        }
+        return next;
+    }
+
+}
@@ -0,0 +1,103 @@
+package lcs;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * LCSMatrix: LCS lengths and similarities between every pair of N documents.
+ * Unlike bottomUpLCS, no table is allocated per pair and memoCheck is never
+ * touched, so pairs are compared concurrently:
+ * <ul>
+ *   <li>each document's bit-parallel match masks are computed once, not once
+ *       per pair</li>
+ *   <li>each worker thread reuses one bit-vector buffer for all its pairs</li>
+ *   <li>with a similarity threshold, a pair is abandoned as soon as the rows
+ *       left cannot bring it up to the threshold</li>
+ * </ul>
+ * The similarity of a pair is 2 * LCS / (m + n): 1 for equal documents and 0
+ * for documents with no letter in common.
+ */
+public class LCSMatrix {
+
+    /**
+     * @param documents The N documents to compare
+     * @param parallel Whether to compare pairs on the common ForkJoinPool
+     * @return The symmetric N x N matrix of LCS lengths
+     */
+    public static int[][] lengths(List<String> documents, boolean parallel) {
+        return compare(documents, 0, parallel);
+    }
+
+    /**
+     * @param documents The N documents to compare
+     * @param threshold Similarity below which a pair need not be computed
+     *        exactly, in [0, 1]
+     * @param parallel Whether to compare pairs on the common ForkJoinPool
+     * @return The symmetric N x N matrix of similarities, with 0 for every pair
+     *         below the threshold
+     */
+    public static double[][] similarities(List<String> documents, double threshold, boolean parallel) {
+        if (!(threshold >= 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Invalid threshold");
+        }
+        int[][] lengths = compare(documents, threshold, parallel);
+        int n = documents.size();
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int total = documents.get(i).length() + documents.get(j).length();
+                result[i][j] = (lengths[i][j] < 0) ? 0 : (total == 0) ? 1 : 2.0 * lengths[i][j] / total;
+            }
+        }
+        return result;
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * @return The LCS length matrix, with -1 for pairs below the threshold
+     */
+    private static int[][] compare(List<String> documents, double threshold, boolean parallel) {
+        int n = documents.size();
+        String[] texts = documents.toArray(new String[n]);
+        LCS.MatchMasks[] masks = new LCS.MatchMasks[n];
+        int longest = 0;
+        for (int i = 0; i < n; i++) {
+            masks[i] = new LCS.MatchMasks(texts[i]);
+            longest = Math.max(longest, texts[i].length());
+        }
+        int words = (longest + 63) >>> 6;
+        ThreadLocal<long[]> buffers = ThreadLocal.withInitial(() -> new long[words]);
+
+        int[][] result = new int[n][n];
+        // Row i has n - 1 - i pairs right of the diagonal, so each task takes
+        // row i together with row n - 1 - i: n - 1 pairs apiece
+        IntStream blocks = IntStream.range(0, (n + 1) / 2);
+        (parallel ? blocks.parallel() : blocks).forEach(i -> {
+            long[] v = buffers.get();
+            compareRow(i, texts, masks, threshold, v, result);
+            if (n - 1 - i != i) {
+                compareRow(n - 1 - i, texts, masks, threshold, v, result);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Fills row i of result right of the diagonal, and its mirror image
+     * below the diagonal, with -1 for pairs below the threshold
+     */
+    private static void compareRow(int i, String[] texts, LCS.MatchMasks[] masks, double threshold, long[] v, int[][] result) {
+        result[i][i] = texts[i].length();
+        for (int j = i + 1; j < texts.length; j++) {
+            // Bits along the shorter document
+            int row = (texts[i].length() >= texts[j].length()) ? i : j, col = i + j - row;
+            int total = texts[i].length() + texts[j].length();
+            int minLength = (int) Math.ceil(threshold * total / 2 - 1e-9);
+            int length = LCS.bitParallelLength(texts[row], masks[col], v, minLength);
+            result[i][j] = result[j][i] = length;
+        }
+    }
+
+}
@@ -96,6 +96,23 @@ public class LCSTests {
         );
     }
     
+    @Test
+    public void BULCSTest_t5() {
+        // The parallel wavefront fills the same table, tiles and all
+        java.util.Random random = new java.util.Random(17);
+        String rStr = randomString(random, 1300, 4), cStr = randomString(random, 900, 4);
+        LCS.createMemo(rStr, cStr);
+        LCS.evaluateCellsBottomUp(rStr, cStr);
+        int[][] sequential = LCS.memoCheck;
+        LCS.createMemo(rStr, cStr);
+        LCS.evaluateCellsWavefront(rStr, cStr);
+        assertArrayEquals(sequential, LCS.memoCheck);
+        assertArrayEquals(fullTable(rStr, cStr), LCS.memoCheck);
+        
+        assertEquals(LCS.bottomUpLCS("ABCBDAB", "BDCABA"), LCS.bottomUpLCS("ABCBDAB", "BDCABA", true));
+        assertArrayEquals(fullTable("ABCBDAB", "BDCABA"), LCS.memoCheck);
+    }
+    
     
     // Top-Down LCS Tests
     // -----------------------------------------------
@@ -184,4 +201,467 @@ public class LCSTests {
         );
     }
     
+    @Test
+    public void TDLCSTest_t5() {
+        // The explicit stack visits exactly the cells the recursion does
+        java.util.Random random = new java.util.Random(19);
+        for (int trial = 0; trial < 200; trial++) {
+            String rStr = randomString(random, 1 + random.nextInt(12), 3),
+                   cStr = randomString(random, 1 + random.nextInt(12), 3);
+            int[][] recursive = new int[rStr.length() + 1][cStr.length() + 1];
+            LCS.fillTDTable(recursive, new boolean[rStr.length() + 1][cStr.length() + 1],
+                            rStr, rStr.length(), cStr, cStr.length());
+            LCS.topDownLCS(rStr, cStr);
+            assertArrayEquals(recursive, LCS.memoCheck);
+            assertEquals(recursive[rStr.length()][cStr.length()], LCS.sparseTopDownLength(rStr, cStr));
+        }
+        
+        // Deeper than the call stack allows for the recursion
+        StringBuilder rStr = new StringBuilder(), cStr = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            rStr.append((char) ('A' + i % 3));
+            cStr.append((char) ('A' + i % 4));
+        }
+        int length = LCS.evaluateCellsTopDown(rStr.toString(), cStr.toString());
+        assertEquals(LCS.lcsLength(rStr.toString(), cStr.toString()), length);
+        assertEquals(length, LCS.memoCheck[3000][3000]);
+        
+        // Strings that agree after an early edit only reach the diagonal and
+        // a corner, where the full table would take 10 GB
+        String text = randomString(random, 50_000, 26);
+        String edited = "XYZ" + text.substring(10);
+        assertEquals(LCS.bitParallelLength(text, edited), LCS.sparseTopDownLength(text, edited));
+    }
+    
+    
+    // Linear-Space LCS Length Tests
+    // -----------------------------------------------
+    @Test
+    public void LengthTest_t0() {
+        assertEquals(0, LCS.lcsLength("", ""));
+        assertEquals(0, LCS.lcsLength("A", ""));
+        assertEquals(0, LCS.lcsLength("A", "B"));
+        assertEquals(3, LCS.lcsLength("ABC", "ABC"));
+        assertEquals(2, LCS.lcsLength("ABA", "BAA"));
+        // Shorter String along either side
+        assertEquals(4, LCS.lcsLength("ABCBDAB", "BDCABA"));
+        assertEquals(4, LCS.lcsLength("BDCABA", "ABCBDAB"));
+    }
+    
+    @Test
+    public void LengthTest_t1() {
+        // Agrees with the full table
+        java.util.Random random = new java.util.Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            String rStr = randomString(random, random.nextInt(12), 3),
+                   cStr = randomString(random, random.nextInt(12), 3);
+            int expected = fullTable(rStr, cStr)[rStr.length()][cStr.length()];
+            assertEquals(expected, LCS.lcsLength(rStr, cStr));
+        }
+        
+        // The full table for two 20k-character Strings would take 1.6 GB
+        StringBuilder rStr = new StringBuilder(), cStr = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            rStr.append((char) ('A' + i % 7));
+            cStr.append((char) ('A' + i % 5));
+        }
+        assertTrue(LCS.lcsLength(rStr.toString(), cStr.toString()) > 0);
+    }
+    
+    
+    // Hirschberg LCS Tests
+    // -----------------------------------------------
+    @Test
+    public void HirschbergTest_t0() {
+        assertEquals("", LCS.hirschbergLCS("", ""));
+        assertEquals("", LCS.hirschbergLCS("A", "B"));
+        assertEquals("A", LCS.hirschbergLCS("A", "BA"));
+        assertEquals("", LCS.hirschbergLCS("AB", ""));
+        assertEquals("ABC", LCS.hirschbergLCS("ABC", "ABC"));
+        assertTrue(new HashSet<>(Arrays.asList("AA", "BA")).contains(LCS.hirschbergLCS("ABA", "BAA")));
+        
+        java.util.Random random = new java.util.Random(11);
+        for (int trial = 0; trial < 200; trial++) {
+            String rStr = randomString(random, random.nextInt(15), 3),
+                   cStr = randomString(random, random.nextInt(15), 3);
+            String lcs = LCS.hirschbergLCS(rStr, cStr);
+            assertEquals(LCS.lcsLength(rStr, cStr), lcs.length());
+            assertTrue(isSubsequence(lcs, rStr) && isSubsequence(lcs, cStr));
+        }
+    }
+    
+    @Test
+    public void HirschbergTest_t1() {
+        // Large enough to fork; both halves agree with the sequential run
+        java.util.Random random = new java.util.Random(3);
+        String rStr = randomString(random, 4000, 4), cStr = randomString(random, 3000, 4);
+        String sequential = LCS.hirschbergLCS(rStr, cStr), parallel = LCS.hirschbergLCS(rStr, cStr, true);
+        assertEquals(LCS.lcsLength(rStr, cStr), sequential.length());
+        assertTrue(isSubsequence(sequential, rStr) && isSubsequence(sequential, cStr));
+        assertEquals(sequential, parallel);
+    }
+    
+    
+    // Bit-Parallel LCS Length Tests
+    // -----------------------------------------------
+    @Test
+    public void BitParallelTest_t0() {
+        assertEquals(0, LCS.bitParallelLength("", ""));
+        assertEquals(0, LCS.bitParallelLength("ABC", ""));
+        assertEquals(0, LCS.bitParallelLength("A", "B"));
+        assertEquals(2, LCS.bitParallelLength("ABA", "BAA"));
+        assertEquals(4, LCS.bitParallelLength("ABCBDAB", "BDCABA"));
+        
+        // Carries across words: lengths around multiples of 64
+        java.util.Random random = new java.util.Random(5);
+        for (int trial = 0; trial < 300; trial++) {
+            int alphabet = (trial % 3 == 0) ? 2 : (trial % 3 == 1) ? 4 : 26;
+            String rStr = randomString(random, random.nextInt(200), alphabet),
+                   cStr = randomString(random, random.nextInt(200), alphabet);
+            assertEquals(LCS.lcsLength(rStr, cStr), LCS.bitParallelLength(rStr, cStr));
+        }
+        String ones = new String(new char[130]).replace('\0', 'A');
+        assertEquals(130, LCS.bitParallelLength(ones, ones));
+        assertEquals(64, LCS.bitParallelLength(ones, ones.substring(0, 64)));
+        
+        // Letters at both ends of the char range, and outside the masks' range
+        String extremes = "" + Character.MIN_VALUE + "AZ" + Character.MAX_VALUE;
+        assertEquals(4, LCS.bitParallelLength(extremes, extremes));
+        assertEquals(2, LCS.bitParallelLength("" + Character.MAX_VALUE + "BA" + Character.MIN_VALUE, "AB" + Character.MIN_VALUE));
+        assertEquals(0, LCS.bitParallelLength("MN", "" + Character.MIN_VALUE + Character.MAX_VALUE));
+    }
+    
+    
+    // All-LCS Enumeration Tests
+    // -----------------------------------------------
+    @Test
+    public void EnumerationTest_t0() {
+        assertEquals(new HashSet<>(Arrays.asList("")), LCS.allLCS("", "", 10));
+        assertEquals(new HashSet<>(Arrays.asList("")), LCS.allLCS("A", "B", 10));
+        assertEquals(new HashSet<>(Arrays.asList("AA", "BA")), LCS.allLCS("ABA", "BAA", 10));
+        assertEquals(new HashSet<>(Arrays.asList("BCBA", "BCAB", "BDAB")), LCS.allLCS("ABCBDAB", "BDCABA", 10));
+        // Ties that skip a letter on one side only, on Strings of unequal length
+        assertEquals(new HashSet<>(Arrays.asList("AB")), LCS.bottomUpLCS("AXB", "AB"));
+        assertEquals(new HashSet<>(Arrays.asList("AB")), LCS.topDownLCS("AXB", "AB"));
+        
+        LCSDag dag = new LCSDag("ABCBDAB", "BDCABA");
+        assertEquals(4, dag.length());
+        assertEquals(3, dag.count());
+        assertArrayEquals(new String[] {"BCAB", "BCBA", "BDAB"}, dag.stream().toArray());
+        assertEquals(new HashSet<>(Arrays.asList("BCAB")), LCS.allLCS("ABCBDAB", "BDCABA", 1));
+    }
+    
+    @Test
+    public void EnumerationTest_t1() {
+        // Agrees with brute force over every subsequence of rStr
+        java.util.Random random = new java.util.Random(13);
+        for (int trial = 0; trial < 200; trial++) {
+            String rStr = randomString(random, random.nextInt(11), 3),
+                   cStr = randomString(random, random.nextInt(11), 3);
+            int length = LCS.lcsLength(rStr, cStr);
+            java.util.Set<String> expected = new HashSet<>();
+            for (int bits = 0; bits < (1 << rStr.length()); bits++) {
+                if (Integer.bitCount(bits) != length) { continue; }
+                StringBuilder sub = new StringBuilder();
+                for (int i = 0; i < rStr.length(); i++) {
+                    if ((bits & (1 << i)) != 0) {
+                        sub.append(rStr.charAt(i));
+                    }
+                }
+                if (isSubsequence(sub.toString(), cStr)) {
+                    expected.add(sub.toString());
+                }
+            }
+            LCSDag dag = new LCSDag(rStr, cStr);
+            assertEquals(expected, LCS.allLCS(rStr, cStr, Integer.MAX_VALUE));
+            assertEquals(expected, LCS.bottomUpLCS(rStr, cStr));
+            assertEquals(expected, LCS.topDownLCS(rStr, cStr));
+            assertEquals(expected.size(), dag.count());
+            assertEquals(expected.size(), dag.stream().count());
+        }
+        
+        // Exponentially many distinct LCS (2^70): counted, and capped on output
+        StringBuilder blocks = new StringBuilder(), swapped = new StringBuilder();
+        for (int i = 0; i < 70; i++) {
+            blocks.append("ABC");
+            swapped.append("BAC");
+        }
+        String r70 = blocks.toString(), c70 = swapped.toString();
+        LCSDag dag = new LCSDag(r70, c70);
+        assertEquals(140, dag.length());
+        assertEquals(Long.MAX_VALUE, dag.count());
+        assertEquals(1000, LCS.allLCS(r70, c70, 1000).size());
+        for (String lcs : LCS.allLCS(r70, c70, 50)) {
+            assertTrue(isSubsequence(lcs, r70) && isSubsequence(lcs, c70));
+        }
+    }
+    
+    
+    // Hunt-Szymanski LCS Tests
+    // -----------------------------------------------
+    @Test
+    public void HuntSzymanskiTest_t0() {
+        assertEquals("", LCS.huntSzymanskiLCS("", "ABC"));
+        assertEquals("", LCS.huntSzymanskiLCS("A", "B"));
+        assertEquals("ABC", LCS.huntSzymanskiLCS("ABC", "ABC"));
+        assertEquals(4, LCS.huntSzymanskiLength("ABCBDAB", "BDCABA"));
+        assertEquals(5, LCS.matchCount("ABA", "BAA"));
+        
+        java.util.Random random = new java.util.Random(23);
+        for (int trial = 0; trial < 300; trial++) {
+            int alphabet = (trial % 2 == 0) ? 3 : 40;
+            String rStr = randomString(random, random.nextInt(30), alphabet),
+                   cStr = randomString(random, random.nextInt(30), alphabet);
+            int expected = LCS.lcsLength(rStr, cStr);
+            String lcs = LCS.huntSzymanskiLCS(rStr, cStr);
+            assertEquals(expected, lcs.length());
+            assertTrue(isSubsequence(lcs, rStr) && isSubsequence(lcs, cStr));
+            assertEquals(expected, LCS.huntSzymanskiLength(rStr, cStr));
+            assertEquals(expected, LCS.lcs(rStr, cStr).length());
+            assertEquals(expected, LCS.length(rStr, cStr));
+        }
+    }
+    
+    @Test
+    public void HuntSzymanskiTest_t1() {
+        // Line-hashed files: a large alphabet, so few matches; the dense
+        // table would take 10^10 steps
+        java.util.Random random = new java.util.Random(29);
+        StringBuilder rStr = new StringBuilder(), cStr = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            rStr.append((char) random.nextInt(60_000));
+            cStr.append((char) random.nextInt(60_000));
+        }
+        String lcs = LCS.lcs(rStr.toString(), cStr.toString());
+        assertTrue(isSubsequence(lcs, rStr.toString()) && isSubsequence(lcs, cStr.toString()));
+        assertEquals(lcs.length(), LCS.length(rStr.toString(), cStr.toString()));
+    }
+    
+    
+    // Diff Tests
+    // -----------------------------------------------
+    @Test
+    public void DiffTest_t0() {
+        java.util.List<String> before = Arrays.asList("a", "b", "c", "d", "e", "f"),
+                               after = Arrays.asList("a", "x", "c", "d", "f", "g");
+        assertEquals(Arrays.asList(
+            new Diff.Edit(Diff.Op.KEEP, 0, 1, 0, 1),
+            new Diff.Edit(Diff.Op.DELETE, 1, 2, 1, 1),
+            new Diff.Edit(Diff.Op.INSERT, 2, 2, 1, 2),
+            new Diff.Edit(Diff.Op.KEEP, 2, 4, 2, 4),
+            new Diff.Edit(Diff.Op.DELETE, 4, 5, 4, 4),
+            new Diff.Edit(Diff.Op.KEEP, 5, 6, 4, 5),
+            new Diff.Edit(Diff.Op.INSERT, 6, 6, 5, 6)
+        ), toList(Diff.diff(before, after)));
+        
+        assertFalse(Diff.diff(new int[0], new int[0]).hasNext());
+        assertEquals(Arrays.asList(new Diff.Edit(Diff.Op.KEEP, 0, 3, 0, 3)),
+                     toList(Diff.diff(new int[] {1, 2, 3}, new int[] {1, 2, 3})));
+        assertEquals(Arrays.asList(new Diff.Edit(Diff.Op.INSERT, 0, 0, 0, 2)),
+                     toList(Diff.diff(new int[0], new int[] {1, 2})));
+        assertEquals(Arrays.asList(new Diff.Edit(Diff.Op.DELETE, 0, 2, 0, 0)),
+                     toList(Diff.diff(new int[] {1, 2}, new int[0])));
+    }
+    
+    @Test
+    public void DiffTest_t1() {
+        // Valid, shortest, maximal runs: dense (3 symbols) and sparse (500)
+        java.util.Random random = new java.util.Random(31);
+        for (int trial = 0; trial < 400; trial++) {
+            int alphabet = (trial % 2 == 0) ? 3 : 500;
+            int[] rSeq = random.ints(random.nextInt(60), 0, alphabet).toArray(),
+                  cSeq = random.ints(random.nextInt(60), 0, alphabet).toArray();
+            if (trial % 4 < 2 && rSeq.length > 0) {
+                // A small edit of the same sequence
+                cSeq = rSeq.clone();
+                cSeq[random.nextInt(cSeq.length)] = alphabet;
+            }
+            assertValidDiff(rSeq, cSeq, toList(Diff.diff(rSeq, cSeq)));
+        }
+        
+        // A one-line edit of a 200k-line file never reaches the DP
+        int[] file = random.ints(200_000, 0, 1 << 20).toArray(), edited = file.clone();
+        edited[150_000] = -1;
+        java.util.List<Diff.Edit> edits = toList(Diff.diff(file, edited));
+        assertEquals(4, edits.size());
+        assertEquals(new Diff.Edit(Diff.Op.DELETE, 150_000, 150_001, 150_000, 150_000), edits.get(1));
+    }
+    
+    
+    // Myers LCS Tests
+    // -----------------------------------------------
+    @Test
+    public void MyersTest_t0() {
+        assertEquals(0, Myers.editDistance(new int[0], new int[0]));
+        assertEquals(3, Myers.editDistance(new int[] {1, 2, 3}, new int[0]));
+        assertEquals(4, Myers.lcsLength("ABCBDAB", "BDCABA"));
+        assertEquals(5, Myers.editDistance(new int[] {1, 2, 3, 2, 4, 1, 2}, new int[] {2, 4, 3, 1, 2, 1}));
+        assertEquals(-1, Myers.editDistance(new int[] {1, 2, 3, 2, 4, 1, 2}, new int[] {2, 4, 3, 1, 2, 1}, 4));
+        assertEquals("ABC", Myers.lcs("ABC", "ABC"));
+        
+        // Both the small-D trace and the middle-snake recursion
+        java.util.Random random = new java.util.Random(37);
+        for (int trial = 0; trial < 400; trial++) {
+            int alphabet = 2 + trial % 5;
+            int[] rSeq = random.ints(random.nextInt(40), 0, alphabet).toArray(),
+                  cSeq = random.ints(random.nextInt(40), 0, alphabet).toArray();
+            int expected = LCS.lcsLength(rSeq, cSeq);
+            assertEquals(expected, Myers.lcsLength(rSeq, cSeq));
+            for (int smallD : new int[] {0, Myers.SMALL_D}) {
+                int[] pairs = Myers.matches(rSeq, cSeq, smallD);
+                assertEquals(2 * expected, pairs.length);
+                for (int k = 0; k < pairs.length; k += 2) {
+                    assertEquals(rSeq[pairs[k]], cSeq[pairs[k + 1]]);
+                    assertTrue(k == 0 || (pairs[k] > pairs[k - 2] && pairs[k + 1] > pairs[k - 1]));
+                }
+            }
+            int distance = rSeq.length + cSeq.length - 2 * expected;
+            assertNull(Myers.boundedMatches(rSeq, cSeq, distance - 1));
+            assertArrayEquals(Myers.matches(rSeq, cSeq), Myers.boundedMatches(rSeq, cSeq, distance));
+            String rStr = randomString(random, random.nextInt(30), alphabet),
+                   cStr = randomString(random, random.nextInt(30), alphabet);
+            String lcs = Myers.lcs(rStr, cStr);
+            assertEquals(LCS.lcsLength(rStr, cStr), lcs.length());
+            assertTrue(isSubsequence(lcs, rStr) && isSubsequence(lcs, cStr));
+        }
+        
+        // Beyond SMALL_D, the bounded search hands over to the middle snakes
+        int[] rSeq = random.ints(400, 0, 4).toArray(), cSeq = random.ints(400, 0, 4).toArray();
+        int expected = LCS.lcsLength(rSeq, cSeq);
+        assertTrue(800 - 2 * expected > Myers.SMALL_D);
+        assertNull(Myers.boundedMatches(rSeq, cSeq, 800 - 2 * expected - 1));
+        assertEquals(2 * expected, Myers.boundedMatches(rSeq, cSeq, 800).length);
+    }
+    
+    @Test
+    public void MyersTest_t1() {
+        // Versions of a 1M-character text a few scattered edits apart
+        java.util.Random random = new java.util.Random(41);
+        String text = randomString(random, 1_000_000, 26);
+        StringBuilder edited = new StringBuilder(text);
+        for (int edit = 0; edit < 20; edit++) {
+            int at = random.nextInt(edited.length());
+            if (edit % 2 == 0) {
+                edited.deleteCharAt(at);
+            } else {
+                edited.insert(at, 'Z');
+            }
+        }
+        int length = Myers.lcsLength(text, edited.toString());
+        assertTrue(length >= 1_000_000 - 10);
+        assertEquals(length, LCS.length(text, edited.toString()));
+        String lcs = LCS.lcs(text, edited.toString());
+        assertEquals(length, lcs.length());
+        assertTrue(isSubsequence(lcs, text) && isSubsequence(lcs, edited.toString()));
+    }
+    
+    
+    // LCS Matrix Tests
+    // -----------------------------------------------
+    @Test
+    public void MatrixTest_t0() {
+        java.util.List<String> documents = Arrays.asList("ABCBDAB", "BDCABA", "", "XYZ", "ABCBDAB");
+        int[][] lengths = LCSMatrix.lengths(documents, false);
+        assertArrayEquals(new int[][] {
+            {7, 4, 0, 0, 7},
+            {4, 6, 0, 0, 4},
+            {0, 0, 0, 0, 0},
+            {0, 0, 0, 3, 0},
+            {7, 4, 0, 0, 7}
+        }, lengths);
+        
+        double[][] similarities = LCSMatrix.similarities(documents, 0.5, false);
+        assertEquals(8.0 / 13, similarities[0][1], 1e-9);
+        assertEquals(1.0, similarities[0][4], 1e-9);
+        assertEquals(1.0, similarities[2][2], 1e-9);
+        assertEquals(0.0, similarities[0][3], 1e-9);
+        // 8 / 13 falls short of 0.7
+        assertEquals(0.0, LCSMatrix.similarities(documents, 0.7, false)[0][1], 1e-9);
+    }
+    
+    @Test
+    public void MatrixTest_t1() {
+        // Parallel, thresholded runs agree with the pairwise lengths
+        java.util.Random random = new java.util.Random(43);
+        java.util.List<String> documents = new java.util.ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            documents.add(randomString(random, random.nextInt(300), 2 + i % 4));
+        }
+        int[][] lengths = LCSMatrix.lengths(documents, true);
+        double[][] similarities = LCSMatrix.similarities(documents, 0.6, true);
+        for (int i = 0; i < documents.size(); i++) {
+            for (int j = 0; j < documents.size(); j++) {
+                String a = documents.get(i), b = documents.get(j);
+                int expected = LCS.lcsLength(a, b);
+                assertEquals(expected, lengths[i][j]);
+                double similarity = (a.length() + b.length() == 0) ? 1 : 2.0 * expected / (a.length() + b.length());
+                assertEquals((similarity >= 0.6) ? similarity : 0, similarities[i][j], 1e-9);
+            }
+        }
+    }
+    
+    
+    // Helper Methods
+    // -----------------------------------------------
+    private static <T> java.util.List<T> toList(java.util.Iterator<T> iterator) {
+        java.util.List<T> list = new java.util.ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+    
+    private static void assertValidDiff(int[] rSeq, int[] cSeq, java.util.List<Diff.Edit> edits) {
+        int row = 0, col = 0, kept = 0;
+        Diff.Op previous = null;
+        for (Diff.Edit edit : edits) {
+            assertEquals(row, edit.R_FROM);
+            assertEquals(col, edit.C_FROM);
+            assertTrue(edit.length() > 0);
+            assertTrue(previous != edit.OP);
+            assertFalse(previous == Diff.Op.INSERT && edit.OP == Diff.Op.DELETE);
+            if (edit.OP == Diff.Op.KEEP) {
+                assertArrayEquals(Arrays.copyOfRange(rSeq, edit.R_FROM, edit.R_TO),
+                                  Arrays.copyOfRange(cSeq, edit.C_FROM, edit.C_TO));
+                kept += edit.length();
+            } else {
+                assertEquals(edit.OP == Diff.Op.DELETE, edit.C_FROM == edit.C_TO);
+                assertEquals(edit.OP == Diff.Op.INSERT, edit.R_FROM == edit.R_TO);
+            }
+            row = edit.R_TO;
+            col = edit.C_TO;
+            previous = edit.OP;
+        }
+        assertEquals(rSeq.length, row);
+        assertEquals(cSeq.length, col);
+        assertEquals(LCS.lcsLength(rSeq, cSeq), kept);
+    }
+    private static boolean isSubsequence(String sub, String str) {
+        int matched = 0;
+        for (int i = 0; i < str.length() && matched < sub.length(); i++) {
+            if (str.charAt(i) == sub.charAt(matched)) {
+                matched++;
+            }
+        }
+        return matched == sub.length();
+    }
+    
+    private static int[][] fullTable(String rStr, String cStr) {
+        int[][] table = new int[rStr.length() + 1][cStr.length() + 1];
+        for (int row = 1; row <= rStr.length(); row++) {
+            for (int col = 1; col <= cStr.length(); col++) {
+                table[row][col] = (rStr.charAt(row - 1) == cStr.charAt(col - 1))
+                    ? table[row - 1][col - 1] + 1
+                    : Math.max(table[row - 1][col], table[row][col - 1]);
+            }
+        }
+        return table;
+    }
+    
+    private static String randomString(java.util.Random random, int length, int alphabet) {
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            result.append((char) ('A' + random.nextInt(alphabet)));
+        }
+        return result.toString();
+    }
+    
 }
@@ -0,0 +1,330 @@
+package lcs;
+
+import java.util.Arrays;
+
+/**
+ * Myers: the O((m + n) D) difference algorithm, where D is the number of
+ * deletions plus insertions between the two sequences, so that their LCS
+ * length is (m + n - D) / 2. The greedy search follows, for each number of
+ * edits d, the furthest point reachable on each diagonal k = row - col,
+ * sliding down runs of equal symbols ("snakes") for free, and stops at the
+ * first d that reaches the end of both sequences. Nearly identical inputs
+ * therefore cost little more than a linear scan.
+ *
+ * One LCS is recovered in one of two ways:
+ * <ul>
+ *   <li>small D: the greedy search keeps its frontier for each d, O(D^2)
+ *       memory, and traces back through it</li>
+ *   <li>otherwise: the linear-space variant finds the middle snake of an
+ *       optimal path by searching from both ends at once, and recurses on
+ *       either side of it</li>
+ * </ul>
+ */
+public class Myers {
+
+    /**
+     * Largest D for which the small-D trace is kept
+     */
+    public static final int SMALL_D = 256;
+
+    /**
+     * @param rSeq The sequence found along the table's rows
+     * @param cSeq The sequence found along the table's cols
+     * @return The least number of deletions plus insertions turning rSeq
+     *         into cSeq
+     */
+    public static int editDistance(int[] rSeq, int[] cSeq) {
+        return editDistance(rSeq, cSeq, rSeq.length + cSeq.length);
+    }
+
+    /**
+     * Bounded search, in O((m + n) maxD) time and O(maxD) memory, for deciding
+     * cheaply whether two inputs are close enough for Myers to pay off.
+     *
+     * @param maxD Most edits to search for
+     * @return The least number of deletions plus insertions turning rSeq into
+     *         cSeq, or -1 if it is more than maxD
+     */
+    public static int editDistance(int[] rSeq, int[] cSeq, int maxD) {
+        int m = rSeq.length, n = cSeq.length;
+        maxD = Math.min(maxD, m + n);
+        if (maxD < 0) {
+            return -1;
+        }
+        int offset = maxD + 1;
+        int[] v = new int[2 * maxD + 3];
+        for (int d = 0; d <= maxD; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int row = furthest(v, offset, k, d);
+                row = slide(rSeq, 0, m, cSeq, 0, n, row, row - k);
+                v[offset + k] = row;
+                if (row >= m && row - k >= n) {
+                    return d;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param rSeq The sequence found along the table's rows
+     * @param cSeq The sequence found along the table's cols
+     * @return The length of the longest common subsequence between rSeq and cSeq
+     */
+    public static int lcsLength(int[] rSeq, int[] cSeq) {
+        return (rSeq.length + cSeq.length - editDistance(rSeq, cSeq)) / 2;
+    }
+
+    /**
+     * @param rSeq The sequence found along the table's rows
+     * @param cSeq The sequence found along the table's cols
+     * @return The (row, col) index pairs of one longest common subsequence,
+     *         flattened as row0, col0, row1, col1, ... in increasing order
+     */
+    public static int[] matches(int[] rSeq, int[] cSeq) {
+        return matches(rSeq, cSeq, SMALL_D);
+    }
+
+    /**
+     * @param smallD Largest D for which to trace back through the kept frontiers
+     *        instead of splitting at middle snakes
+     */
+    static int[] matches(int[] rSeq, int[] cSeq, int smallD) {
+        int[] small = traceSmallD(rSeq, cSeq, smallD);
+        if (small != null) {
+            return small;
+        }
+        Pairs pairs = new Pairs();
+        linearSpace(rSeq, 0, rSeq.length, cSeq, 0, cSeq.length, pairs);
+        return pairs.toArray();
+    }
+
+    /**
+     * matches for inputs that may be too far apart for Myers to pay off,
+     * running the greedy search at most twice: within SMALL_D the trace's own
+     * search is the bounded one, and otherwise the bounded search finds D,
+     * which picks the trace or the middle-snake recursion directly.
+     *
+     * @param maxD Most edits to search for
+     * @return The matches as in matches(), or null if more than maxD edits are
+     *         needed
+     */
+    static int[] boundedMatches(int[] rSeq, int[] cSeq, int maxD) {
+        if (maxD <= SMALL_D) {
+            return traceSmallD(rSeq, cSeq, maxD);
+        }
+        int distance = editDistance(rSeq, cSeq, maxD);
+        if (distance < 0) {
+            return null;
+        }
+        if (distance <= SMALL_D) {
+            return traceSmallD(rSeq, cSeq, distance);
+        }
+        Pairs pairs = new Pairs();
+        linearSpace(rSeq, 0, rSeq.length, cSeq, 0, cSeq.length, pairs);
+        return pairs.toArray();
+    }
+
+    /**
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return One longest common subsequence between rStr and cStr
+     */
+    public static String lcs(String rStr, String cStr) {
+        int[] pairs = matches(LCS.codes(rStr), LCS.codes(cStr));
+        char[] result = new char[pairs.length / 2];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = rStr.charAt(pairs[2 * k]);
+        }
+        return new String(result);
+    }
+
+    /**
+     * @param rStr The String found along the table's rows
+     * @param cStr The String found along the table's cols
+     * @return The length of the longest common subsequence between rStr and cStr
+     */
+    public static int lcsLength(String rStr, String cStr) {
+        return lcsLength(LCS.codes(rStr), LCS.codes(cStr));
+    }
+
+
+    // Helper Methods / Classes
+
+    /**
+     * @return The row where a path with d edits on diagonal k starts its snake:
+     *         one step down from diagonal k + 1 or right from k - 1, whichever
+     *         of those frontiers (in v, indexed from offset) is further
+     */
+    private static int furthest(int[] v, int offset, int k, int d) {
+        if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+            return v[offset + k + 1];
+        }
+        return v[offset + k - 1] + 1;
+    }
+
+    /**
+     * @return The row at the end of the snake from (row, col), i.e., after
+     *         every equal pair of symbols that follows
+     */
+    private static int slide(int[] rSeq, int rFrom, int rTo, int[] cSeq, int cFrom, int cTo, int row, int col) {
+        while (rFrom + row < rTo && cFrom + col < cTo && rSeq[rFrom + row] == cSeq[cFrom + col]) {
+            row++;
+            col++;
+        }
+        return row;
+    }
+
+    /**
+     * Greedy search that keeps the frontier of every d, then traces back from
+     * the end through the diagonal each frontier came from.
+     *
+     * @return The matches as in matches(), or null if more than maxD edits are
+     *         needed
+     */
+    private static int[] traceSmallD(int[] rSeq, int[] cSeq, int maxD) {
+        int m = rSeq.length, n = cSeq.length;
+        maxD = Math.min(maxD, m + n);
+        int offset = maxD + 1;
+        int[] v = new int[2 * maxD + 3];
+        int[][] frontiers = new int[maxD + 1][];
+        int distance = -1;
+        for (int d = 0; d <= maxD && distance < 0; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int row = furthest(v, offset, k, d);
+                row = slide(rSeq, 0, m, cSeq, 0, n, row, row - k);
+                v[offset + k] = row;
+                if (row >= m && row - k >= n) {
+                    distance = d;
+                    break;
+                }
+            }
+            frontiers[d] = Arrays.copyOfRange(v, offset - d, offset + d + 1);
+        }
+        if (distance < 0) {
+            return null;
+        }
+
+        int[] pairs = new int[m + n - distance];
+        int size = pairs.length, row = m, col = n;
+        for (int d = distance; d >= 0; d--) {
+            int k = row - col;
+            // Where this d's snake started, and the previous d's frontier
+            int start, previousRow, previousCol;
+            if (d == 0) {
+                start = 0;
+                previousRow = previousCol = 0;
+            } else {
+                int[] previous = frontiers[d - 1];
+                boolean down = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]);
+                int previousK = down ? k + 1 : k - 1;
+                previousRow = previous[previousK + d - 1];
+                previousCol = previousRow - previousK;
+                start = down ? previousRow : previousRow + 1;
+            }
+            while (row > start) {
+                row--;
+                col--;
+                pairs[--size] = col;
+                pairs[--size] = row;
+            }
+            row = previousRow;
+            col = previousCol;
+        }
+        return Arrays.copyOfRange(pairs, size, pairs.length);
+    }
+
+    /**
+     * Appends the matches of one LCS of rSeq[rFrom, rTo) and cSeq[cFrom, cTo)
+     * to pairs, splitting the problem at a middle snake until it has at most
+     * one edit left.
+     */
+    private static void linearSpace(int[] rSeq, int rFrom, int rTo, int[] cSeq, int cFrom, int cTo, Pairs pairs) {
+        int m = rTo - rFrom, n = cTo - cFrom;
+        if (m == 0 || n == 0) {
+            return;
+        }
+        int[] snake = middleSnake(rSeq, rFrom, m, cSeq, cFrom, n);
+        int startRow = snake[0], startCol = snake[1], endRow = snake[2], endCol = snake[3], distance = snake[4];
+        if (distance > 1) {
+            linearSpace(rSeq, rFrom, rFrom + startRow, cSeq, cFrom, cFrom + startCol, pairs);
+            for (int row = startRow, col = startCol; row < endRow; row++, col++) {
+                pairs.add(rFrom + row, cFrom + col);
+            }
+            linearSpace(rSeq, rFrom + endRow, rTo, cSeq, cFrom + endCol, cTo, pairs);
+            return;
+        }
+        // One sequence is the other with at most one symbol more
+        for (int row = 0, col = 0; row < m && col < n; ) {
+            if (rSeq[rFrom + row] == cSeq[cFrom + col]) {
+                pairs.add(rFrom + row++, cFrom + col++);
+            } else if (m > n) {
+                row++;
+            } else {
+                col++;
+            }
+        }
+    }
+
+    /**
+     * Searches forward from (0, 0) and backward from (m, n) in lockstep until
+     * the two frontiers overlap on some diagonal; the snake found there lies
+     * on an optimal path.
+     *
+     * @return {startRow, startCol, endRow, endCol, D} of the middle snake,
+     *         relative to rFrom and cFrom, and the edit distance D
+     */
+    private static int[] middleSnake(int[] rSeq, int rFrom, int m, int[] cSeq, int cFrom, int n) {
+        int delta = m - n, maxD = (m + n + 1) / 2, offset = maxD + 1;
+        boolean odd = (delta & 1) != 0;
+        // forward[k]: furthest row on diagonal row - col = k from the start;
+        // backward[k]: furthest distance back from the end on diagonal k of the
+        // reversed sequences, i.e., forward diagonal delta - k
+        int[] forward = new int[2 * maxD + 3], backward = new int[2 * maxD + 3];
+        for (int d = 0; d <= maxD; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int start = furthest(forward, offset, k, d);
+                int row = slide(rSeq, rFrom, rFrom + m, cSeq, cFrom, cFrom + n, start, start - k);
+                forward[offset + k] = row;
+                int c = delta - k;
+                if (odd && c >= -(d - 1) && c <= d - 1 && row + backward[offset + c] >= m) {
+                    return new int[] {start, start - k, row, row - k, 2 * d - 1};
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int start = furthest(backward, offset, k, d);
+                int back = start;
+                while (back < m && back - k < n && rSeq[rFrom + m - 1 - back] == cSeq[cFrom + n - 1 - (back - k)]) {
+                    back++;
+                }
+                backward[offset + k] = back;
+                int c = delta - k;
+                if (!odd && c >= -d && c <= d && back + forward[offset + c] >= m) {
+                    return new int[] {m - back, n - (back - k), m - start, n - (start - k), 2 * d};
+                }
+            }
+        }
+        throw new IllegalStateException("No middle snake");
+    }
+
+    /**
+     * Growable list of (row, col) pairs
+     */
+    private static class Pairs {
+        private int[] data = new int[16];
+        private int size;
+
+        void add(int row, int col) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, 2 * data.length);
+            }
+            data[size++] = row;
+            data[size++] = col;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+}